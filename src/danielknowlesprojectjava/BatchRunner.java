@@ -0,0 +1,430 @@
+package danielknowlesprojectjava;
+
+import danielknowlesprojectjava.components.Checkpoint;
+import danielknowlesprojectjava.components.GenerationListener;
+import danielknowlesprojectjava.components.ParallelWorldEvaluator;
+import danielknowlesprojectjava.components.World;
+import danielknowlesprojectjava.geneticAlgorithm.FitnessCache;
+import danielknowlesprojectjava.geneticAlgorithm.FitnessEvaluator;
+import danielknowlesprojectjava.geneticAlgorithm.FitnessLandscape;
+import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
+import danielknowlesprojectjava.geneticAlgorithm.LandscapeEvaluator;
+import danielknowlesprojectjava.geneticAlgorithm.RouletteSelection;
+import danielknowlesprojectjava.geneticAlgorithm.Selection;
+import danielknowlesprojectjava.geneticAlgorithm.TournamentSelection;
+import danielknowlesprojectjava.geneticAlgorithm.UniversalSampling;
+import danielknowlesprojectjava.statistics.BinaryFormat;
+import danielknowlesprojectjava.statistics.CsvFormat;
+import danielknowlesprojectjava.statistics.StatisticsFormat;
+import danielknowlesprojectjava.statistics.StatisticsWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Command line entry point that evolves a population without opening any
+ * windows. Each finished generation is written out as a line of comma
+ * separated values: the generation number, the average fitness and the
+ * highest fitness.
+ */
+public class BatchRunner {
+    // default option values
+    private static final int DEFAULT_WIDTH = 585;
+    private static final int DEFAULT_HEIGHT = 540;
+    private static final int DEFAULT_GENERATIONS = 100;
+
+    /**
+     * Prints the command line options.
+     */
+    private static void printUsage() {
+        System.err.println("usage: BatchRunner [options]");
+        System.err.println("  --population <n>   number of feeders (default "
+                + World.DEFAULT_NUM_FEEDERS + ")");
+        System.err.println("  --food <n>         amount of food (default "
+                + World.DEFAULT_NUM_FOODS + ")");
+        System.err.println("  --width <n>        width of the world (default "
+                + DEFAULT_WIDTH + ")");
+        System.err.println("  --height <n>       height of the world (default "
+                + DEFAULT_HEIGHT + ")");
+        System.err.println("  --generations <n>  generations to run (default "
+                + DEFAULT_GENERATIONS + ")");
+        System.err.println("  --crossover <p>    crossover rate (default "
+                + GeneticEngine.DEFAULT_CROSSOVER_PROBABILITY + ")");
+        System.err.println("  --mutation <p>     mutation rate (default "
+                + GeneticEngine.DEFAULT_MUTATION_PROBABILITY + ")");
+        System.err.println("  --selection <s>    'roulette', 'sus' (stochastic "
+                + "universal sampling) or 'tournament[:size]' (default "
+                + "roulette, tournament size "
+                + TournamentSelection.DEFAULT_SIZE + ")");
+        System.err.println("  --seed <n>         master random seed (the same seed "
+                + "gives the same results)");
+        System.err.println("  --threads <n>      threads that run each tick "
+                + "(default " + Runtime.getRuntime().availableProcessors()
+                + ")");
+        System.err.println("  --mode <mode>      'tick' runs every tick, 'event' "
+                + "skips between events (default tick)");
+        System.err.println("  --evaluation <e>   'shared' scores the whole "
+                + "population in one world, 'parallel' scores batches in "
+                + "private worlds at once (default shared)");
+        System.err.println("  --batch-size <n>   feeders in each private world "
+                + "with parallel evaluation (default "
+                + ParallelWorldEvaluator.DEFAULT_BATCH_SIZE + ")");
+        System.err.println("  --cache <c>        with parallel evaluation, "
+                + "remember each chromosome's fitness: 'reuse' scores it "
+                + "once, 'topup:<k>' until it has k samples, 'always' every "
+                + "time (default no cache)");
+        System.err.println("  --cache-size <n>   most chromosomes the cache "
+                + "holds (default " + FitnessCache.DEFAULT_MAX_ENTRIES + ")");
+        System.err.println("  --landscape <file> look fitness up in a file "
+                + "made by LandscapeBuilder instead of simulating");
+        System.err.println("  --history-limit <n> most generations of "
+                + "fitness history to keep in memory (default no limit)");
+        System.err.println("  --checkpoint <file> save the run to a file "
+                + "after every generation");
+        System.err.println("  --resume <file>    carry on a run saved with "
+                + "--checkpoint, up to --generations");
+        System.err.println("  --stats <file>     add each generation's "
+                + "statistics to a file");
+        System.err.println("  --stats-format <format> 'csv' or 'binary' "
+                + "(default csv)");
+        System.err.println("  --output <file>    write results to a file "
+                + "instead of standard out");
+    }
+
+    /**
+     * Parses the value of the --mode option.
+     * @param value the option's value
+     * @return true for event mode, false for tick mode
+     */
+    private static boolean parseMode(String value) {
+        if (value.equals("tick")) return false;
+        if (value.equals("event")) return true;
+        throw new IllegalArgumentException("Unknown mode " + value);
+    }
+
+    /**
+     * Parses the value of the --evaluation option.
+     * @param value the option's value
+     * @return true for parallel evaluation, false for the shared world
+     */
+    private static boolean parseEvaluation(String value) {
+        if (value.equals("shared")) return false;
+        if (value.equals("parallel")) return true;
+        throw new IllegalArgumentException("Unknown evaluation " + value);
+    }
+
+    /**
+     * Parses the value of the --cache option.
+     * @param value the option's value
+     * @param evaluator the evaluator the cache wraps
+     * @param maxEntries the most chromosomes the cache holds
+     * @return the fitness cache
+     */
+    private static FitnessCache parseCache(String value,
+            FitnessEvaluator evaluator, int maxEntries) {
+        if (value.equals("reuse"))
+            return new FitnessCache(evaluator, FitnessCache.Policy.REUSE, 1,
+                    maxEntries);
+        if (value.equals("always"))
+            return new FitnessCache(evaluator, FitnessCache.Policy.ALWAYS, 1,
+                    maxEntries);
+        if (value.startsWith("topup:"))
+            return new FitnessCache(evaluator, FitnessCache.Policy.TOP_UP,
+                    Integer.parseInt(value.substring("topup:".length())),
+                    maxEntries);
+        throw new IllegalArgumentException("Unknown cache " + value);
+    }
+
+    /**
+     * Parses the value of the --stats-format option.
+     * @param value the option's value
+     * @return the statistics format
+     */
+    private static StatisticsFormat parseStatsFormat(String value) {
+        if (value.equals("csv")) return new CsvFormat();
+        if (value.equals("binary")) return new BinaryFormat();
+        throw new IllegalArgumentException("Unknown statistics format "
+                + value);
+    }
+
+    /**
+     * Parses the value of the --selection option.
+     * @param value the option's value
+     * @return the selection operator
+     */
+    private static Selection parseSelection(String value) {
+        if (value.equals("roulette")) return new RouletteSelection();
+        if (value.equals("sus")) return new UniversalSampling();
+        if (value.equals("tournament")) return new TournamentSelection();
+        if (value.startsWith("tournament:"))
+            return new TournamentSelection(Integer.parseInt(
+                    value.substring("tournament:".length())));
+        throw new IllegalArgumentException("Unknown selection " + value);
+    }
+
+    /**
+     * Evolves a population against a fitness landscape, without a world.
+     * The genetic algorithm's options are taken from the world.
+     * @param world the world holding the options
+     * @param landscape the fitness landscape
+     * @param generations the number of generations to run
+     * @param out where to write each generation's results
+     */
+    private static void runLandscape(World world, FitnessLandscape landscape,
+            int generations, PrintWriter out) {
+        GeneticEngine genE = new GeneticEngine(world.getNumFeeders(),
+                world.getCrossoverProbability(),
+                world.getMutationProbability(), Integer.MAX_VALUE,
+                landscape.getChromosomeLength(),
+                world.getRandomService().newStream());
+        genE.setSelection(world.getSelection());
+        genE.setFitnessEvaluator(new LandscapeEvaluator(landscape));
+
+        for (int genNumber = 1; genNumber <= generations; genNumber++) {
+            genE.evaluatePopulation();
+            genE.setNextGeneration();
+            out.println(genNumber + ","
+                    + genE.getAverageFitnesses().getLast() + ","
+                    + genE.getHighestFitnesses().getLast());
+        }
+        out.flush();
+    }
+
+    /**
+     * The entry point of the batch runner.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        // make sure nothing tries to open a window
+        System.setProperty("java.awt.headless", "true");
+
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        int generations = DEFAULT_GENERATIONS;
+        String output = null;
+        boolean parallel = false;
+        int batchSize = ParallelWorldEvaluator.DEFAULT_BATCH_SIZE;
+        String cache = null;
+        int cacheSize = FitnessCache.DEFAULT_MAX_ENTRIES;
+        FitnessCache fitnessCache = null;
+        String landscape = null;
+        String checkpoint = null;
+        String resume = null;
+        String stats = null;
+        StatisticsFormat statsFormat = new CsvFormat();
+        World world = new World();
+        // nothing is drawn, so the only limit is memory
+        world.setMaxFeeders(Integer.MAX_VALUE);
+        world.setMaxFoods(Integer.MAX_VALUE);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+
+                if (option.equals("--help") || option.equals("-h")) {
+                    printUsage();
+                    return;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException(
+                            "Missing value for " + option);
+
+                String value = args[++i];
+
+                if (option.equals("--population"))
+                    world.setNumFeeders(Integer.parseInt(value));
+                else if (option.equals("--food"))
+                    world.setNumFoods(Integer.parseInt(value));
+                else if (option.equals("--width"))
+                    width = Integer.parseInt(value);
+                else if (option.equals("--height"))
+                    height = Integer.parseInt(value);
+                else if (option.equals("--generations"))
+                    generations = Integer.parseInt(value);
+                else if (option.equals("--crossover"))
+                    world.setCrossoverProbability(Double.parseDouble(value));
+                else if (option.equals("--mutation"))
+                    world.setMutationProbability(Double.parseDouble(value));
+                else if (option.equals("--selection"))
+                    world.setSelection(parseSelection(value));
+                else if (option.equals("--seed"))
+                    world.setSeed(Long.parseLong(value));
+                else if (option.equals("--threads"))
+                    world.setThreadCount(Integer.parseInt(value));
+                else if (option.equals("--mode"))
+                    world.setEventDriven(parseMode(value));
+                else if (option.equals("--evaluation"))
+                    parallel = parseEvaluation(value);
+                else if (option.equals("--batch-size"))
+                    batchSize = Integer.parseInt(value);
+                else if (option.equals("--cache"))
+                    cache = value;
+                else if (option.equals("--cache-size"))
+                    cacheSize = Integer.parseInt(value);
+                else if (option.equals("--landscape"))
+                    landscape = value;
+                else if (option.equals("--checkpoint"))
+                    checkpoint = value;
+                else if (option.equals("--resume"))
+                    resume = value;
+                else if (option.equals("--history-limit"))
+                    world.setHistoryLimit(Integer.parseInt(value));
+                else if (option.equals("--stats"))
+                    stats = value;
+                else if (option.equals("--stats-format"))
+                    statsFormat = parseStatsFormat(value);
+                else if (option.equals("--output"))
+                    output = value;
+                else
+                    throw new IllegalArgumentException(
+                            "Unknown option " + option);
+            }
+
+            // the evaluator needs the world's other options, so it is made
+            // once they have all been read
+            if (parallel) {
+                FitnessEvaluator evaluator = new ParallelWorldEvaluator(world,
+                        batchSize, world.getThreadCount());
+                if (cache != null) {
+                    fitnessCache = parseCache(cache, evaluator, cacheSize);
+                    evaluator = fitnessCache;
+                }
+                world.setFitnessEvaluator(evaluator);
+            } else if (cache != null) {
+                throw new IllegalArgumentException(
+                        "--cache needs --evaluation parallel");
+            }
+            if (landscape != null && parallel)
+                throw new IllegalArgumentException(
+                        "--landscape can't be used with --evaluation parallel");
+            // the cache's contents and a landscape run's engine aren't part
+            // of the world, so a checkpoint can't hold them
+            if ((checkpoint != null || resume != null) &&
+                    (cache != null || landscape != null))
+                throw new IllegalArgumentException("--checkpoint and --resume "
+                        + "can't be used with --cache or --landscape");
+            // a checkpoint holds the whole fitness history
+            if ((checkpoint != null || resume != null) &&
+                    world.getHistoryLimit() > 0)
+                throw new IllegalArgumentException("--checkpoint and --resume "
+                        + "can't be used with --history-limit");
+            if (stats != null && landscape != null)
+                throw new IllegalArgumentException(
+                        "--stats can't be used with --landscape");
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            System.err.println(ex.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+
+        final PrintWriter out;
+        try {
+            out = output == null ? new PrintWriter(System.out) :
+                new PrintWriter(new FileWriter(output));
+        } catch (IOException ex) {
+            System.err.println("Could not open " + output + ": "
+                    + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        StatisticsWriter statsWriter = null;
+        if (stats != null) {
+            try {
+                statsWriter = new StatisticsWriter(new File(stats),
+                        statsFormat);
+            } catch (IOException ex) {
+                System.err.println("Could not open " + stats + ": "
+                        + ex.getMessage());
+                System.exit(1);
+            } catch (IllegalArgumentException ex) {
+                System.err.println(stats + ": " + ex.getMessage());
+                System.exit(1);
+            }
+            world.setStatisticsSink(statsWriter);
+        }
+
+        world.setBounds(0, 0, width, height);
+        final World checkpointWorld = world;
+        final File checkpointFile = checkpoint == null ? null :
+                new File(checkpoint);
+        final Checkpoint saver = new Checkpoint();
+        world.setGenerationListener(new GenerationListener() {
+            public void generationAdvanced(int genNumber, double avgFit,
+                    double highFit) {
+                out.println(genNumber + "," + avgFit + "," + highFit);
+                out.flush();
+                if (checkpointFile == null) return;
+                try {
+                    saver.save(checkpointWorld, checkpointFile);
+                } catch (IOException ex) {
+                    // keep going; the last checkpoint that worked is still
+                    // there
+                    System.err.println("Could not write " + checkpointFile
+                            + ": " + ex.getMessage());
+                }
+            }
+        });
+
+        out.println("generation,averageFitness,highestFitness");
+        if (landscape != null) {
+            try {
+                runLandscape(world, FitnessLandscape.load(new File(landscape)),
+                        generations, out);
+            } catch (IOException ex) {
+                System.err.println("Could not read " + landscape + ": "
+                        + ex.getMessage());
+                System.exit(1);
+            } catch (IllegalArgumentException ex) {
+                System.err.println(landscape + ": " + ex.getMessage());
+                System.exit(1);
+            }
+            out.close();
+            return;
+        }
+        if (resume != null) {
+            try {
+                Checkpoint.load(world, new File(resume));
+            } catch (IOException ex) {
+                System.err.println("Could not read " + resume + ": "
+                        + ex.getMessage());
+                System.exit(1);
+            } catch (IllegalArgumentException ex) {
+                System.err.println(resume + ": " + ex.getMessage());
+                System.exit(1);
+            }
+            // repeat the saved generations, so the output is the same as
+            // if the run had never stopped
+            GeneticEngine genE = world.getGeneticEngine();
+            for (int i = 0; i < world.getGenerationCount(); i++) {
+                out.println((i + 1) + "," + genE.getAverageFitnesses().get(i)
+                        + "," + genE.getHighestFitnesses().get(i));
+            }
+            out.flush();
+        } else {
+            world.initialize();
+        }
+        while (world.getGenerationCount() < generations) {
+            world.runGeneration();
+        }
+
+        out.close();
+        if (statsWriter != null) {
+            try {
+                statsWriter.close();
+            } catch (IOException ex) {
+                System.err.println("Could not write " + stats + ": "
+                        + ex.getMessage());
+                System.exit(1);
+            }
+        }
+        if (fitnessCache != null) {
+            System.err.println("fitness cache: " + fitnessCache.getHits()
+                    + " hits, " + fitnessCache.getEvaluations()
+                    + " evaluations, " + fitnessCache.size()
+                    + " chromosomes");
+        }
+    }
+}
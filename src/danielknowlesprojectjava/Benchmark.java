@@ -0,0 +1,215 @@
+package danielknowlesprojectjava;
+
+import danielknowlesprojectjava.components.World;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Command line entry point that measures how fast the simulation runs. The
+ * world is warmed up first, then a fixed number of ticks is timed and the
+ * ticks per second and the bytes allocated per tick are printed. No
+ * generation boundary is crossed while measuring, so the figures are for the
+ * steady state inside a generation. With --generations, a number of
+ * generation boundaries are then timed on their own, and the feeder and food
+ * pool hits and misses are printed.
+ *
+ * Unless a size is given, the world grows with the number of feeders and
+ * food so that it is never more crowded than the default world holding the
+ * default limit of each. That keeps the work per feeder the same, so the
+ * figures for different population sizes can be compared.
+ */
+public class Benchmark {
+    // default option values
+    private static final int DEFAULT_WIDTH = 585;
+    private static final int DEFAULT_HEIGHT = 540;
+    private static final int DEFAULT_WARMUP = 2000;
+    private static final int DEFAULT_TICKS = 5000;
+    private static final int DEFAULT_GENERATIONS = 0;
+
+    /**
+     * Prints the command line options.
+     */
+    private static void printUsage() {
+        System.err.println("usage: Benchmark [options]");
+        System.err.println("  --feeders <n>   number of feeders (default "
+                + World.DEFAULT_NUM_FEEDERS + ")");
+        System.err.println("  --food <n>      amount of food (default "
+                + World.DEFAULT_NUM_FOODS + ")");
+        System.err.println("  --width <n>     width of the world (default "
+                + DEFAULT_WIDTH + ", scaled up for large populations)");
+        System.err.println("  --height <n>    height of the world (default "
+                + DEFAULT_HEIGHT + ", scaled up for large populations)");
+        System.err.println("  --warmup <n>    ticks to run before measuring "
+                + "(default " + DEFAULT_WARMUP + ")");
+        System.err.println("  --ticks <n>     ticks to measure (default "
+                + DEFAULT_TICKS + ")");
+        System.err.println("  --generations <n> generation boundaries to "
+                + "measure after the ticks (default " + DEFAULT_GENERATIONS
+                + ")");
+        System.err.println("  --seed <n>      random seed");
+        System.err.println("  --threads <n>   threads that run each tick "
+                + "(default " + Runtime.getRuntime().availableProcessors()
+                + ")");
+        System.err.println("  --mode <mode>   'tick' runs every tick, 'event' "
+                + "skips between events (default tick)");
+    }
+
+    /**
+     * Gets the number of bytes the current thread has allocated, if the JVM
+     * can tell us.
+     * @return the number of bytes allocated, or -1 if not supported
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean =
+                    (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                return sunBean.getThreadAllocatedBytes(
+                        Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the value of the --mode option.
+     * @param value the option's value
+     * @return true for event mode, false for tick mode
+     */
+    private static boolean parseMode(String value) {
+        if (value.equals("tick")) return false;
+        if (value.equals("event")) return true;
+        throw new IllegalArgumentException("Unknown mode " + value);
+    }
+
+    /**
+     * The entry point of the benchmark.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int width = 0;
+        int height = 0;
+        int warmup = DEFAULT_WARMUP;
+        int ticks = DEFAULT_TICKS;
+        int generations = DEFAULT_GENERATIONS;
+        World world = new World();
+        // nothing is drawn, so the only limit is memory
+        world.setMaxFeeders(Integer.MAX_VALUE);
+        world.setMaxFoods(Integer.MAX_VALUE);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+
+                if (option.equals("--help") || option.equals("-h")) {
+                    printUsage();
+                    return;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException(
+                            "Missing value for " + option);
+
+                String value = args[++i];
+
+                if (option.equals("--feeders"))
+                    world.setNumFeeders(Integer.parseInt(value));
+                else if (option.equals("--food"))
+                    world.setNumFoods(Integer.parseInt(value));
+                else if (option.equals("--width"))
+                    width = Integer.parseInt(value);
+                else if (option.equals("--height"))
+                    height = Integer.parseInt(value);
+                else if (option.equals("--warmup"))
+                    warmup = Integer.parseInt(value);
+                else if (option.equals("--ticks"))
+                    ticks = Integer.parseInt(value);
+                else if (option.equals("--generations"))
+                    generations = Integer.parseInt(value);
+                else if (option.equals("--seed"))
+                    world.setSeed(Long.parseLong(value));
+                else if (option.equals("--threads"))
+                    world.setThreadCount(Integer.parseInt(value));
+                else if (option.equals("--mode"))
+                    world.setEventDriven(parseMode(value));
+                else
+                    throw new IllegalArgumentException(
+                            "Unknown option " + option);
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+
+        double scale = Math.sqrt(Math.max(1, Math.max(
+                world.getNumFeeders() / (double) World.DEFAULT_MAX_FEEDERS,
+                world.getNumFoods() / (double) World.DEFAULT_MAX_FOOD)));
+        if (width <= 0)
+            width = (int) Math.round(DEFAULT_WIDTH * scale);
+        if (height <= 0)
+            height = (int) Math.round(DEFAULT_HEIGHT * scale);
+        world.setBounds(0, 0, width, height);
+        world.initialize();
+        // keep the whole run inside one generation
+        world.setNumGenLoops(Integer.MAX_VALUE);
+
+        for (int i = 0; i < warmup; i++) {
+            world.step();
+        }
+
+        long startBytes = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            world.step();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long endBytes = getAllocatedBytes();
+
+        double seconds = elapsed / 1e9;
+        System.out.println("feeders:         " + world.getNumFeeders());
+        System.out.println("food:            " + world.getNumFoods());
+        System.out.println("world size:      " + width + " x " + height);
+        System.out.println("threads:         " + world.getThreadCount());
+        System.out.println("mode:            "
+                + (world.isEventDriven() ? "event" : "tick"));
+        System.out.println("ticks:           " + ticks);
+        System.out.println("ticks/sec:       "
+                + String.format("%.1f", ticks / seconds));
+        if (startBytes >= 0 && endBytes >= 0) {
+            System.out.println("bytes/tick:      "
+                    + String.format("%.1f",
+                    (endBytes - startBytes) / (double) ticks));
+        }
+
+        if (generations <= 0) return;
+
+        // end the generation on the next tick, every time. each measured
+        // step is one tick plus a generation boundary.
+        startBytes = getAllocatedBytes();
+        startTime = System.nanoTime();
+        for (int i = 0; i < generations; i++) {
+            world.setNumGenLoops(world.getGenLoopCount() + 1);
+            world.step();
+        }
+        elapsed = System.nanoTime() - startTime;
+        endBytes = getAllocatedBytes();
+
+        System.out.println("generations:     " + generations);
+        System.out.println("ms/generation:   "
+                + String.format("%.2f", elapsed / 1e6 / generations));
+        if (startBytes >= 0 && endBytes >= 0) {
+            System.out.println("bytes/generation: "
+                    + String.format("%.1f",
+                    (endBytes - startBytes) / (double) generations));
+        }
+        System.out.println("feeder pool:     "
+                + world.getFeederCollection().getPoolHits() + " hits, "
+                + world.getFeederCollection().getPoolMisses() + " misses");
+        System.out.println("food pool:       "
+                + world.getFoodCollection().getPoolHits() + " hits, "
+                + world.getFoodCollection().getPoolMisses() + " misses");
+    }
+}
@@ -0,0 +1,153 @@
+package danielknowlesprojectjava;
+
+import danielknowlesprojectjava.components.ParallelWorldEvaluator;
+import danielknowlesprojectjava.components.World;
+import danielknowlesprojectjava.geneticAlgorithm.FitnessLandscape;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Command line entry point that scores every possible feeder chromosome
+ * and saves the results as a fitness landscape file. BatchRunner can then
+ * evolve a population against the file with --landscape instead of
+ * simulating anything.
+ *
+ * Each time round, every chromosome is scored once in private worlds, a
+ * batch at a time, with as much food per feeder as a world with the given
+ * population and food would have.
+ */
+public class LandscapeBuilder {
+    // default option values
+    private static final int DEFAULT_WIDTH = 585;
+    private static final int DEFAULT_HEIGHT = 540;
+    private static final int DEFAULT_REPLICATES = 10;
+
+    /**
+     * Prints the command line options.
+     */
+    private static void printUsage() {
+        System.err.println("usage: LandscapeBuilder --output <file> [options]");
+        System.err.println("  --output <file>    the landscape file to write");
+        System.err.println("  --replicates <n>   times to score each "
+                + "chromosome (default " + DEFAULT_REPLICATES + ")");
+        System.err.println("  --population <n>   feeders the food is shared "
+                + "between (default " + World.DEFAULT_NUM_FEEDERS + ")");
+        System.err.println("  --food <n>         amount of food for that "
+                + "many feeders (default " + World.DEFAULT_NUM_FOODS + ")");
+        System.err.println("  --width <n>        width of the world (default "
+                + DEFAULT_WIDTH + ")");
+        System.err.println("  --height <n>       height of the world (default "
+                + DEFAULT_HEIGHT + ")");
+        System.err.println("  --batch-size <n>   feeders in each private world "
+                + "(default " + ParallelWorldEvaluator.DEFAULT_BATCH_SIZE
+                + ")");
+        System.err.println("  --seed <n>         master random seed");
+        System.err.println("  --threads <n>      worlds to run at once "
+                + "(default " + Runtime.getRuntime().availableProcessors()
+                + ")");
+        System.err.println("  --mode <mode>      'tick' runs every tick, 'event' "
+                + "skips between events (default event)");
+    }
+
+    /**
+     * Parses the value of the --mode option.
+     * @param value the option's value
+     * @return true for event mode, false for tick mode
+     */
+    private static boolean parseMode(String value) {
+        if (value.equals("tick")) return false;
+        if (value.equals("event")) return true;
+        throw new IllegalArgumentException("Unknown mode " + value);
+    }
+
+    /**
+     * The entry point of the landscape builder.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        // make sure nothing tries to open a window
+        System.setProperty("java.awt.headless", "true");
+
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        int replicates = DEFAULT_REPLICATES;
+        int batchSize = ParallelWorldEvaluator.DEFAULT_BATCH_SIZE;
+        String output = null;
+        World world = new World();
+        world.setMaxFeeders(Integer.MAX_VALUE);
+        world.setMaxFoods(Integer.MAX_VALUE);
+        // every chromosome is scored the same way whichever mode is used, so
+        // use the faster one unless told otherwise
+        world.setEventDriven(true);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+
+                if (option.equals("--help") || option.equals("-h")) {
+                    printUsage();
+                    return;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException(
+                            "Missing value for " + option);
+
+                String value = args[++i];
+
+                if (option.equals("--output"))
+                    output = value;
+                else if (option.equals("--replicates"))
+                    replicates = Integer.parseInt(value);
+                else if (option.equals("--population"))
+                    world.setNumFeeders(Integer.parseInt(value));
+                else if (option.equals("--food"))
+                    world.setNumFoods(Integer.parseInt(value));
+                else if (option.equals("--width"))
+                    width = Integer.parseInt(value);
+                else if (option.equals("--height"))
+                    height = Integer.parseInt(value);
+                else if (option.equals("--batch-size"))
+                    batchSize = Integer.parseInt(value);
+                else if (option.equals("--seed"))
+                    world.setSeed(Long.parseLong(value));
+                else if (option.equals("--threads"))
+                    world.setThreadCount(Integer.parseInt(value));
+                else if (option.equals("--mode"))
+                    world.setEventDriven(parseMode(value));
+                else
+                    throw new IllegalArgumentException(
+                            "Unknown option " + option);
+            }
+            if (output == null)
+                throw new IllegalArgumentException("--output is required");
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            System.err.println(ex.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+
+        world.setBounds(0, 0, width, height);
+        ParallelWorldEvaluator evaluator = new ParallelWorldEvaluator(world,
+                batchSize, world.getThreadCount());
+
+        long start = System.nanoTime();
+        FitnessLandscape landscape = FitnessLandscape.build(
+                World.CHROMOSOME_LENGTH, replicates, evaluator,
+                world.getRandomService().newStream());
+        evaluator.shutdown();
+
+        try {
+            landscape.save(new File(output));
+        } catch (IOException ex) {
+            System.err.println("Could not write " + output + ": "
+                    + ex.getMessage());
+            System.exit(1);
+        }
+
+        System.err.println("scored " + (1 << World.CHROMOSOME_LENGTH)
+                + " chromosomes " + replicates + " times in "
+                + String.format("%.1f", (System.nanoTime() - start) / 1e9)
+                + " s");
+    }
+}
@@ -6,6 +6,7 @@
 package danielknowlesprojectjava;
 
 import danielknowlesprojectjava.components.EnvironmentFrame;
+import danielknowlesprojectjava.components.World;
 
 /**
  * Entry point of the application.
@@ -14,10 +15,33 @@ public class Main {
 
     /**
      * The entry point of the application.
-     * @param args the command line arguments
+     * @param args the command line arguments. "--seed n" sets the master
+     * seed for the simulation's random numbers, and "--max-population n" and
+     * "--max-food n" raise the limits shown in the options dialog.
      */
     public static void main(String[] args) {
-        EnvironmentFrame ef = new EnvironmentFrame(600, 600);
+        EnvironmentFrame ef;
+        Long seed = null;
+        int maxFeeders = World.DEFAULT_MAX_FEEDERS;
+        int maxFoods = World.DEFAULT_MAX_FOOD;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--seed"))
+                seed = Long.valueOf(args[i + 1]);
+            else if (args[i].equals("--max-population"))
+                maxFeeders = Integer.parseInt(args[i + 1]);
+            else if (args[i].equals("--max-food"))
+                maxFoods = Integer.parseInt(args[i + 1]);
+        }
+
+        if (seed != null) {
+            ef = new EnvironmentFrame(600, 600, seed.longValue());
+        } else {
+            ef = new EnvironmentFrame(600, 600);
+        }
+        World world = ef.getEnvironment().getWorld();
+        world.setMaxFeeders(maxFeeders);
+        world.setMaxFoods(maxFoods);
         ef.setVisible(true); 
     }
 
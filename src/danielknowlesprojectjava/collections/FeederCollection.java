@@ -1,21 +1,50 @@
 package danielknowlesprojectjava.collections;
 
-import danielknowlesprojectjava.components.Environment;
+import danielknowlesprojectjava.components.World;
 import danielknowlesprojectjava.components.Feeder;
+import danielknowlesprojectjava.components.FeederState;
+import danielknowlesprojectjava.geneticAlgorithm.Genome;
 import java.util.ArrayList;
 
 /**
- * Stores a collection of feeder objects that live in the environment.
+ * Stores a collection of feeder objects that live in a world.
  */
 public class FeederCollection {
-    // collection of feeders in the environment
-    private static ArrayList<Feeder> feeders;
+    // the world the feeders live in
+    private final World world;
+    // collection of feeders in the world
+    private ArrayList<Feeder> feeders = new ArrayList<Feeder>();
+    // the per-tick values of the feeders, stored as parallel arrays
+    private final FeederState state = new FeederState();
+    // feeders cleared out of the collection, kept to be reused by
+    // addFeeder(Genome)
+    private final ArrayList<Feeder> spare = new ArrayList<Feeder>();
+    // the number of times a spare feeder was reused, and the number of times
+    // a new one had to be created
+    private long poolHits = 0;
+    private long poolMisses = 0;
+
+    /**
+     * Creates a new, empty feeder collection.
+     * @param world the world the feeders live in
+     */
+    public FeederCollection(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Gets the feeder state that holds the feeders' per-tick values.
+     * @return the feeder state
+     */
+    public FeederState getState() {
+        return state;
+    }
 
     /**
      * Sets the feeder list.
      * @param f the arraylist of feeders
      */
-    public static void setFeeders(ArrayList<Feeder> f) {
+    public void setFeeders(ArrayList<Feeder> f) {
         feeders = f;
     }
 
@@ -23,7 +52,7 @@ public class FeederCollection {
      * Gets the feeders list.
      * @return an arraylist of feeder objects
      */
-    public static ArrayList<Feeder> getFeeders() {
+    public ArrayList<Feeder> getFeeders() {
         return feeders;
     }
 
@@ -32,13 +61,39 @@ public class FeederCollection {
      * @param f the feeder to add
      * @return true if successful, false if not
      */
-    public static boolean addFeeder(Feeder f) {
+    public boolean addFeeder(Feeder f) {
         // first, make sure that we haven't reached the maximum feeder cap
-        if (feeders.size() < Environment.MAX_FEEDERS) {
+        if (feeders.size() < world.getMaxFeeders()) {
             feeders.add(f);
             return true;
         }
 
+        // the feeder won't be in the environment, so give up its state
+        state.remove(f);
+        return false;
+    }
+
+    /**
+     * Adds a feeder to the collection. A feeder cleared out of the
+     * collection earlier is reused if there is one.
+     * @param chromosome the feeder's chromosome
+     * @return true if successful, false if not
+     */
+    public boolean addFeeder(Genome chromosome) {
+        // first, make sure that we haven't reached the maximum feeder cap
+        if (feeders.size() < world.getMaxFeeders()) {
+            if (spare.isEmpty()) {
+                feeders.add(new Feeder(world, chromosome));
+                poolMisses++;
+            } else {
+                Feeder f = spare.remove(spare.size() - 1);
+                f.reuse(chromosome);
+                feeders.add(f);
+                poolHits++;
+            }
+            return true;
+        }
+
         return false;
     }
 
@@ -49,10 +104,10 @@ public class FeederCollection {
      * @param intelligence the intelligence level of the feeder
      * @return true if successful, false if not
      */
-    public static boolean addFeeder(int speed, int eyesight, int intelligence) {
+    public boolean addFeeder(int speed, int eyesight, int intelligence) {
         // first, make sure that we haven't reached the maximum feeder cap
-        if (feeders.size() < Environment.MAX_FEEDERS) {
-            feeders.add(new Feeder(speed, eyesight, intelligence));
+        if (feeders.size() < world.getMaxFeeders()) {
+            feeders.add(new Feeder(world, speed, eyesight, intelligence));
             return true;
         }
 
@@ -63,10 +118,10 @@ public class FeederCollection {
      * Adds a random feeder to the collection.
      * @return true if successful, false if not
      */
-    public static boolean addFeeder() {
+    public boolean addFeeder() {
         // first, make sure we haven't reached the maximum feeder cap
-        if (feeders.size() < Environment.MAX_FEEDERS) {
-            feeders.add(Feeder.getRandomFeeder());
+        if (feeders.size() < world.getMaxFeeders()) {
+            feeders.add(Feeder.getRandomFeeder(world));
             return true;
         }
 
@@ -77,8 +132,9 @@ public class FeederCollection {
      * Removes a feeder from the collection.
      * @param f the feeder to remove
      */
-    public static void removeFeeder(Feeder f) {
+    public void removeFeeder(Feeder f) {
         feeders.remove(f);
+        state.remove(f);
         f = null;
     }
 
@@ -86,17 +142,35 @@ public class FeederCollection {
      * Removes the feeder at the specified index.
      * @param index the index of the feeder to remove
      */
-//    public static void removeFeederAt(int index) {
+//    public void removeFeederAt(int index) {
 //        feeders.remove(index);
 //
 //    }
 
     /**
-     * Clears the feeders collection.
+     * Clears the feeders collection. The feeders are kept to be reused by
+     * addFeeder(Genome).
      */
-    public static void clearFeeders() {
-        for (Feeder f : feeders)
-            f = null;
+    public void clearFeeders() {
+        spare.addAll(feeders);
         feeders.clear();
+        state.clear();
+    }
+
+    /**
+     * Gets the number of times a feeder has been reused.
+     * @return the number of pool hits
+     */
+    public long getPoolHits() {
+        return poolHits;
+    }
+
+    /**
+     * Gets the number of times a new feeder has had to be created because
+     * there wasn't one to reuse.
+     * @return the number of pool misses
+     */
+    public long getPoolMisses() {
+        return poolMisses;
     }
 }
@@ -1,28 +1,57 @@
 package danielknowlesprojectjava.collections;
 
-import danielknowlesprojectjava.collections.FeederCollection;
-import danielknowlesprojectjava.components.Environment;
-import danielknowlesprojectjava.components.Feeder;
+import danielknowlesprojectjava.components.World;
 import danielknowlesprojectjava.components.Food;
 import java.awt.geom.Point2D;
 import java.util.*;
 
 /**
- * The static collection of Food objects in the environment.
+ * The collection of Food objects in a world.
  */
 public class FoodCollection {
+    // the world the food is in
+    private final World world;
     // The food list
-    private static ArrayList<Food> foods = new ArrayList<Food>();
+    private ArrayList<Food> foods = new ArrayList<Food>();
+    // The spatial index over the active food
+    private FoodGrid grid;
+    // the feeders that have observed each food object
+    private final FoodObservers observers = new FoodObservers();
+    // food cleared out of the collection, kept to be reused by addFood()
+    private final ArrayList<Food> spare = new ArrayList<Food>();
+    // the number of times addFood() reused a spare food object, and the
+    // number of times it had to create a new one
+    private long poolHits = 0;
+    private long poolMisses = 0;
+
+    /**
+     * Creates a new, empty food collection.
+     * @param world the world the food is in
+     */
+    public FoodCollection(World world) {
+        this.world = world;
+    }
 
 
     /**
-     * Adds a random food object to the collection.
+     * Adds a random food object to the collection. A food object cleared out
+     * of the collection earlier is reused if there is one.
      * @return true if successful, false if not
      */
-    public static boolean addFood() {
+    public boolean addFood() {
         // first, make sure we haven't reached the maximum food cap
-        if (foods.size() < Environment.MAX_FOOD) {
-            foods.add(Food.getRandomFood());
+        if (foods.size() < world.getMaxFoods()) {
+            Food f;
+            if (spare.isEmpty()) {
+                f = Food.getRandomFood(world);
+                poolMisses++;
+            } else {
+                f = spare.remove(spare.size() - 1);
+                f.placeRandomly(world);
+                poolHits++;
+            }
+            f.setIndex(foods.size());
+            foods.add(f);
             return true;
         }
 
@@ -34,9 +63,10 @@ public class FoodCollection {
      * @param f the food object to add
      * @return true if successful, false if not
      */
-    public static boolean addFood(Food f) {
+    public boolean addFood(Food f) {
         // first, make sure we haven't reached the maximum food cap
-        if (foods.size() < Environment.MAX_FOOD) {
+        if (foods.size() < world.getMaxFoods()) {
+            f.setIndex(foods.size());
             foods.add(f);
             return true;
         }
@@ -51,10 +81,12 @@ public class FoodCollection {
      * @param location the location of the food in the environment
      * @return true if successful, false if not
      */
-    public static boolean addFood(int width, int height, Point2D.Double location) {
+    public boolean addFood(int width, int height, Point2D.Double location) {
         // first, make sure we haven't reached the maximum food cap
-        if (foods.size() < Environment.MAX_FOOD) {
-            foods.add(new Food(width, height, location));
+        if (foods.size() < world.getMaxFoods()) {
+            Food f = new Food(width, height, location);
+            f.setIndex(foods.size());
+            foods.add(f);
             return true;
         }
 
@@ -62,16 +94,16 @@ public class FoodCollection {
     }
 
     /**
-     * Removes a food object from the foods list and from the feeders'
-     * observed lists. Marks the food as eaten.
+     * Marks a food object as eaten and takes it out of the spatial grid, so
+     * that no feeder sees it again. The feeders that have already observed
+     * it drop it from their observed sets.
      * @param f the food object to remove
      */
-    public static void removeFood(Food f) {
+    public void removeFood(Food f) {
         f.markAsEaten();
-        f = null;
-        for (Feeder fr : FeederCollection.getFeeders()) {
-            fr.removeFromObserved(f);
-        }
+        if (grid != null)
+            grid.remove(f);
+        observers.foodEaten(f);
 
         //foods.remove(f);
     }
@@ -81,11 +113,8 @@ public class FoodCollection {
      * the feeders' observed lists. Marks the food as eaten.
      * @param index the index of the food object to remove
      */
-//    public static void removeFoodAt(int index) {
+//    public void removeFoodAt(int index) {
 //        foods.get(index).markAsEaten();
-//        for (Feeder fr : FeederCollection.getFeeders()) {
-//            fr.removeFromObserved(foods.get(index));
-//        }
 //       // Food f = foods.get(index);
 //       // foods.remove(f);
 //    }
@@ -94,7 +123,7 @@ public class FoodCollection {
      * Gets the foods list.
      * @return a list of food object
      */
-    public static ArrayList<Food> getFoods() {
+    public ArrayList<Food> getFoods() {
         return foods;
     }
 
@@ -102,16 +131,82 @@ public class FoodCollection {
      * Sets the foods list.
      * @param f the array list of food objects
      */
-    public static void setFoods(ArrayList<Food> f) {
+    public void setFoods(ArrayList<Food> f) {
         foods = f;
+        for (int i = 0; i < foods.size(); i++) {
+            foods.get(i).setIndex(i);
+        }
     }
 
     /**
-     * Clears the foods list, removing all food objects.
+     * Clears the foods list, removing all food objects. They are kept to be
+     * reused by addFood().
      */
-    public static void clearFoods() {
+    public void clearFoods() {
         for (Food f : foods)
-            f = null;
+            f.setIndex(-1);
+        spare.addAll(foods);
         foods.clear();
+        if (grid != null)
+            grid.clear();
+        observers.reset(0);
+    }
+
+    /**
+     * Builds the spatial grid over the active food in the foods list and
+     * empties the observer index. Call this after all of the food has been
+     * added.
+     * @param cellSize the size of each grid cell
+     */
+    public void buildGrid(double cellSize) {
+        double width = world.getMaxX() - world.getMinX();
+        double height = world.getMaxY() - world.getMinY();
+        // the world rarely changes size, so the last grid can usually be
+        // emptied and used again
+        if (grid != null && grid.covers(world.getMinX(), world.getMinY(),
+                width, height, cellSize))
+            grid.clear();
+        else
+            grid = new FoodGrid(world.getMinX(), world.getMinY(), width,
+                    height, cellSize);
+
+        for (Food f : foods) {
+            if (f.isActive())
+                grid.add(f);
+        }
+        observers.reset(foods.size());
+    }
+
+    /**
+     * Gets the spatial grid over the active food.
+     * @return the food grid, or null if it hasn't been built
+     */
+    public FoodGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Gets the index of which feeders have observed each food object.
+     * @return the observer index
+     */
+    public FoodObservers getObservers() {
+        return observers;
+    }
+
+    /**
+     * Gets the number of times addFood() has reused a food object.
+     * @return the number of pool hits
+     */
+    public long getPoolHits() {
+        return poolHits;
+    }
+
+    /**
+     * Gets the number of times addFood() has had to create a new food
+     * object because there wasn't one to reuse.
+     * @return the number of pool misses
+     */
+    public long getPoolMisses() {
+        return poolMisses;
     }
 }
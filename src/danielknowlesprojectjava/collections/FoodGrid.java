@@ -0,0 +1,214 @@
+package danielknowlesprojectjava.collections;
+
+import danielknowlesprojectjava.components.Food;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A uniform grid of buckets over the food in the environment. Food doesn't
+ * move during a generation, so the grid is built once when the food is
+ * created and only changes when a food object is eaten. Feeders use it to
+ * find the food that is close enough to see without checking every food
+ * object in the environment.
+ *
+ * Each cell keeps the coordinates of its food in arrays of its own, so a
+ * search can throw out the food that is too far away without touching the
+ * food objects themselves. With hundreds of thousands of food objects most
+ * of them aren't in the CPU's cache, and following a pointer to each one
+ * costs far more than the distance test.
+ */
+public class FoodGrid {
+    // the number of slots each cell starts with
+    private static final int INITIAL_CELL_CAPACITY = 4;
+    // the food in each cell, stored row by row, and the coordinates of each
+    // food object's top left corner
+    private Food[][] cellFood;
+    private double[][] cellX;
+    private double[][] cellY;
+    // the number of food objects in each cell
+    private int[] cellCount;
+    // the size of each (square) cell
+    private double cellSize;
+    // the number of columns and rows in the grid
+    private int columns;
+    private int rows;
+    // the coordinates of the grid's top left corner
+    private double originX;
+    private double originY;
+
+    /**
+     * Creates a new, empty food grid.
+     * @param originX the lowest x coordinate covered by the grid
+     * @param originY the lowest y coordinate covered by the grid
+     * @param width the width of the area covered by the grid
+     * @param height the height of the area covered by the grid
+     * @param cellSize the size of each cell. This should be at least the
+     * distance a feeder can see, so that a feeder only ever has to look at
+     * the cells around it.
+     */
+    public FoodGrid(double originX, double originY, double width,
+            double height, double cellSize) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize > 0 ? cellSize : 1;
+        columns = Math.max(1, (int) Math.ceil(width / this.cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / this.cellSize));
+
+        int cells = columns * rows;
+        cellFood = new Food[cells][];
+        cellX = new double[cells][];
+        cellY = new double[cells][];
+        cellCount = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            cellFood[i] = new Food[INITIAL_CELL_CAPACITY];
+            cellX[i] = new double[INITIAL_CELL_CAPACITY];
+            cellY[i] = new double[INITIAL_CELL_CAPACITY];
+        }
+    }
+
+    /**
+     * Determines if the grid has the same area and cells as a grid created
+     * with the given values would, so that it can be cleared and reused.
+     * @param originX the x coordinate of the top left corner of the area
+     * @param originY the y coordinate of the top left corner of the area
+     * @param width the width of the area
+     * @param height the height of the area
+     * @param cellSize the size of each cell
+     * @return true if the grid is the same, false if not
+     */
+    public boolean covers(double originX, double originY, double width,
+            double height, double cellSize) {
+        double size = cellSize > 0 ? cellSize : 1;
+        return this.originX == originX && this.originY == originY &&
+               this.cellSize == size &&
+               columns == Math.max(1, (int) Math.ceil(width / size)) &&
+               rows == Math.max(1, (int) Math.ceil(height / size));
+    }
+
+    /**
+     * Gets the column that an x coordinate falls in. Coordinates outside the
+     * grid are put in the nearest column.
+     * @param x the x coordinate
+     * @return the column index
+     */
+    private int getColumn(double x) {
+        int column = (int) Math.floor((x - originX) / cellSize);
+        if (column < 0) return 0;
+        if (column >= columns) return columns - 1;
+        return column;
+    }
+
+    /**
+     * Gets the row that a y coordinate falls in. Coordinates outside the
+     * grid are put in the nearest row.
+     * @param y the y coordinate
+     * @return the row index
+     */
+    private int getRow(double y) {
+        int row = (int) Math.floor((y - originY) / cellSize);
+        if (row < 0) return 0;
+        if (row >= rows) return rows - 1;
+        return row;
+    }
+
+    /**
+     * Gets the index of the cell that a food object belongs in.
+     * @param f the food object
+     * @return the food object's cell index
+     */
+    private int getCell(Food f) {
+        return getRow(f.getCurrentLocation().y) * columns +
+                getColumn(f.getCurrentLocation().x);
+    }
+
+    /**
+     * Adds a food object to the grid.
+     * @param f the food object to add
+     */
+    public void add(Food f) {
+        int cell = getCell(f);
+        int count = cellCount[cell];
+
+        if (count == cellFood[cell].length) {
+            cellFood[cell] = Arrays.copyOf(cellFood[cell], count * 2);
+            cellX[cell] = Arrays.copyOf(cellX[cell], count * 2);
+            cellY[cell] = Arrays.copyOf(cellY[cell], count * 2);
+        }
+
+        cellFood[cell][count] = f;
+        cellX[cell][count] = f.getCurrentLocation().x;
+        cellY[cell][count] = f.getCurrentLocation().y;
+        cellCount[cell] = count + 1;
+    }
+
+    /**
+     * Removes a food object from the grid. The last food object in its cell
+     * takes its place, so the order of food in a cell can change.
+     * @param f the food object to remove
+     */
+    public void remove(Food f) {
+        int cell = getCell(f);
+        Food[] food = cellFood[cell];
+        int last = cellCount[cell] - 1;
+
+        for (int i = 0; i <= last; i++) {
+            if (food[i] == f) {
+                food[i] = food[last];
+                cellX[cell][i] = cellX[cell][last];
+                cellY[cell][i] = cellY[cell][last];
+                food[last] = null;
+                cellCount[cell] = last;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all food from the grid.
+     */
+    public void clear() {
+        for (int cell = 0; cell < cellCount.length; cell++) {
+            Arrays.fill(cellFood[cell], 0, cellCount[cell], null);
+            cellCount[cell] = 0;
+        }
+    }
+
+    /**
+     * Finds the food whose top left corner is within a distance of a point.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param distance the distance to search
+     * @param results the list to put the food into. It is cleared first so
+     * that the same list can be reused every tick.
+     * @return the results list
+     */
+    public ArrayList<Food> getNearbyFood(double x, double y, double distance,
+            ArrayList<Food> results) {
+        results.clear();
+
+        int minColumn = getColumn(x - distance);
+        int maxColumn = getColumn(x + distance);
+        int minRow = getRow(y - distance);
+        int maxRow = getRow(y + distance);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * columns + column;
+                double[] fx = cellX[cell];
+                double[] fy = cellY[cell];
+
+                for (int i = 0; i < cellCount[cell]; i++) {
+                    double dx = fx[i] - x;
+                    double dy = fy[i] - y;
+                    // the same sum as Point2D.distance(), so a food object
+                    // right on the edge is found if the caller's own test
+                    // would pass it
+                    if (Math.sqrt(dx * dx + dy * dy) <= distance)
+                        results.add(cellFood[cell][i]);
+                }
+            }
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,123 @@
+package danielknowlesprojectjava.collections;
+
+import danielknowlesprojectjava.components.Feeder;
+import danielknowlesprojectjava.components.Food;
+import java.util.Arrays;
+
+/**
+ * A reverse index from each food object to the feeders that have observed
+ * it. When a food object is eaten, only the feeders that know about it are
+ * told, and they drop it from their observed sets straight away, so an
+ * observed set only ever holds food that is still there.
+ *
+ * Each food object's observers are kept as a linked list through shared
+ * arrays of entries, found by the food object's index in the food
+ * collection. A feeder's entry is taken out again when it drops the food,
+ * so the index never holds more entries than the observed sets hold food.
+ * The entries of eaten and dropped food are reused, so nothing is allocated
+ * once the arrays are big enough.
+ *
+ * The index isn't thread safe. The world only adds to it between phases.
+ */
+public class FoodObservers {
+    // the number of entries to start with
+    private static final int INITIAL_CAPACITY = 256;
+    // the first entry of each food object's list (-1 if empty), by food index
+    private int[] first = new int[0];
+    // the feeder in each entry
+    private Feeder[] feeder = new Feeder[INITIAL_CAPACITY];
+    // the next entry in the same list (-1 at the end of a list)
+    private int[] next = new int[INITIAL_CAPACITY];
+    // the first entry in the list of unused entries (-1 if there aren't any)
+    private int free = -1;
+    // the number of entries that have ever been handed out
+    private int used = 0;
+
+    /**
+     * Empties the index and makes room for a number of food objects.
+     * @param foodCount the number of food objects in the collection
+     */
+    public void reset(int foodCount) {
+        if (first.length < foodCount)
+            first = new int[foodCount];
+        Arrays.fill(first, -1);
+        // let go of the feeders so they can be garbage collected
+        Arrays.fill(feeder, 0, used, null);
+        free = -1;
+        used = 0;
+    }
+
+    /**
+     * Records that a feeder has observed a food object.
+     * @param f the food object
+     * @param fr the feeder that observed it
+     */
+    public void add(Food f, Feeder fr) {
+        int entry = free;
+        if (entry >= 0) {
+            free = next[entry];
+        } else {
+            if (used == feeder.length) {
+                feeder = Arrays.copyOf(feeder, used * 2);
+                next = Arrays.copyOf(next, used * 2);
+            }
+            entry = used++;
+        }
+
+        int index = f.getIndex();
+        feeder[entry] = fr;
+        next[entry] = first[index];
+        first[index] = entry;
+    }
+
+    /**
+     * Records that a feeder has dropped a food object from its observed set.
+     * Does nothing if the feeder isn't one of the food's observers.
+     * @param f the food object
+     * @param fr the feeder that dropped it
+     */
+    public void remove(Food f, Feeder fr) {
+        int index = f.getIndex();
+        if (index < 0 || index >= first.length) return;
+
+        // a food object only has a few observers, so walk its list
+        int previous = -1;
+        int entry = first[index];
+        while (entry >= 0 && feeder[entry] != fr) {
+            previous = entry;
+            entry = next[entry];
+        }
+        if (entry < 0) return;
+
+        if (previous < 0)
+            first[index] = next[entry];
+        else
+            next[previous] = next[entry];
+        feeder[entry] = null;
+        next[entry] = free;
+        free = entry;
+    }
+
+    /**
+     * Tells every feeder that has observed a food object that it has been
+     * eaten, and hands the object's entries back for reuse. The list is
+     * taken off the food object before anyone is told, so the feeders
+     * dropping the food don't have to find their entries in it.
+     * @param f the food object that has been eaten
+     */
+    public void foodEaten(Food f) {
+        int index = f.getIndex();
+        if (index < 0 || index >= first.length) return;
+
+        int entry = first[index];
+        first[index] = -1;
+        while (entry >= 0) {
+            int following = next[entry];
+            feeder[entry].removeFromObserved(f);
+            feeder[entry] = null;
+            next[entry] = free;
+            free = entry;
+            entry = following;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package danielknowlesprojectjava.collections;
+
+import danielknowlesprojectjava.components.Food;
+
+/**
+ * A small open addressing hash set of food objects, keyed by each food
+ * object's index in the food collection. Adding, removing and checking for a
+ * food object take constant time on average, and nothing is allocated unless
+ * the set has to grow.
+ *
+ * The table can be walked slot by slot with getCapacity() and get(), which
+ * returns null for empty slots.
+ */
+public class FoodSet {
+    // the number of slots to start with (always a power of two)
+    private static final int INITIAL_CAPACITY = 8;
+    // the slots of the table, null when empty
+    private Food[] table = new Food[INITIAL_CAPACITY];
+    // the number of food objects in the set
+    private int size = 0;
+
+    /**
+     * Gets the slot that a food object's probe sequence starts at.
+     * @param f the food object
+     * @param mask the table length minus one
+     * @return the slot index
+     */
+    private static int getSlot(Food f, int mask) {
+        // spread the dense indices out so that neighbouring food doesn't
+        // fill neighbouring slots
+        int h = f.getIndex() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Finds the slot that holds a food object.
+     * @param f the food object to find
+     * @return the slot index, or -1 if the food isn't in the set
+     */
+    private int find(Food f) {
+        int mask = table.length - 1;
+        int slot = getSlot(f, mask);
+
+        while (table[slot] != null) {
+            if (table[slot] == f) return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines if a food object is in the set.
+     * @param f the food object to check
+     * @return true if it is in the set, false if not
+     */
+    public boolean contains(Food f) {
+        return f != null && find(f) >= 0;
+    }
+
+    /**
+     * Adds a food object to the set.
+     * @param f the food object to add
+     * @return true if it was added, false if it was already in the set
+     */
+    public boolean add(Food f) {
+        if (f == null || contains(f)) return false;
+
+        // keep the table at most half full so that probe sequences stay short
+        if ((size + 1) * 2 > table.length)
+            resize(table.length * 2);
+
+        insert(f);
+        size++;
+        return true;
+    }
+
+    /**
+     * Puts a food object in the first free slot of its probe sequence.
+     * @param f the food object to insert
+     */
+    private void insert(Food f) {
+        int mask = table.length - 1;
+        int slot = getSlot(f, mask);
+
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = f;
+    }
+
+    /**
+     * Moves every food object into a new table.
+     * @param capacity the new number of slots
+     */
+    private void resize(int capacity) {
+        Food[] old = table;
+        table = new Food[capacity];
+
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] != null)
+                insert(old[i]);
+        }
+    }
+
+    /**
+     * Removes a food object from the set.
+     * @param f the food object to remove
+     * @return true if it was removed, false if it wasn't in the set
+     */
+    public boolean remove(Food f) {
+        if (f == null) return false;
+
+        int slot = find(f);
+        if (slot < 0) return false;
+
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Empties a slot. The food objects after it in the same run of full slots
+     * are shifted back so that every probe sequence still reaches its food
+     * without needing tombstones. A caller walking the table in slot order
+     * should check the same slot again afterwards, since a later object may
+     * have been moved into it.
+     * @param slot the slot to empty
+     */
+    public void removeAt(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        while (table[next] != null) {
+            int home = getSlot(table[next], mask);
+            // move the object back if its home slot isn't between the hole
+            // and where it sits now
+            boolean canMove = hole <= next
+                    ? (home <= hole || home > next)
+                    : (home <= hole && home > next);
+            if (canMove) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        table[hole] = null;
+        size--;
+    }
+
+    /**
+     * Gets the number of food objects in the set.
+     * @return the size of the set
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the number of slots in the table.
+     * @return the table capacity
+     */
+    public int getCapacity() { return table.length; }
+
+    /**
+     * Gets the food object in a slot.
+     * @param slot the slot index
+     * @return the food object, or null if the slot is empty
+     */
+    public Food get(int slot) { return table[slot]; }
+
+    /**
+     * Removes every food object from the set. The table keeps its size.
+     */
+    public void clear() {
+        if (size == 0) return;
+
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+        size = 0;
+    }
+}
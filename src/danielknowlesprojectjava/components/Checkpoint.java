@@ -0,0 +1,253 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.geneticAlgorithm.DoubleSeries;
+import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
+import danielknowlesprojectjava.geneticAlgorithm.Genome;
+import danielknowlesprojectjava.geneticAlgorithm.Genotype;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Saves a world between generations so that a long run can be carried on
+ * later, and loads it back. A world resumed from a checkpoint runs on
+ * exactly as it would have if it had never stopped.
+ *
+ * Between generations, a world is completely described by its options, its
+ * population, its fitness history and the seed the generation's random
+ * numbers start from (see World), so that is all a checkpoint holds. The
+ * feeders and food are made again from the population and the seed. The
+ * selection operator and fitness evaluator aren't saved; the same ones have
+ * to be set again before resuming.
+ *
+ * A checkpoint file is laid out like this, all big-endian:
+ * <pre>
+ * int    magic number (FILE_MAGIC)
+ * int    file format version (FILE_VERSION)
+ * int    x, y, width and height of the world
+ * int    number of food objects
+ * int    number of ticks in a generation
+ * int    most feeders and most food objects the world can hold
+ * double crossover probability
+ * double mutation probability
+ * byte   1 if the world is event driven, 0 if not
+ * long   master seed
+ * long   generation seed
+ * int    feeder count when the generation started
+ * int    number of generations finished (n)
+ * double n average fitnesses, then n highest fitnesses
+ * int    population size (p)
+ * int    chromosome length in bits
+ * long   the words of each of the p chromosomes in turn
+ * </pre>
+ *
+ * Version 1 files didn't hold the limits and aren't read any more.
+ *
+ * The whole checkpoint is put together in one buffer, kept from one save to
+ * the next, and written with a single channel write to a temporary file
+ * that then replaces the old checkpoint. A run that stops half way through
+ * saving still has the previous checkpoint.
+ */
+public class Checkpoint {
+    // marks a file as a checkpoint ("FCKP")
+    public static final int FILE_MAGIC = 0x46434B50;
+    // the version of the file format
+    public static final int FILE_VERSION = 2;
+    // the size of everything before the fitness history in bytes
+    private static final int HEADER_SIZE = 81;
+
+    // holds each checkpoint while it is written, reused from save to save
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+
+    /**
+     * Saves a world. The world has to be between generations, which it is
+     * when its generation listener is called.
+     * @param world the world to save
+     * @param file the checkpoint file to write
+     * @throws IOException if the file can't be written
+     * @throws IllegalStateException if the world is in the middle of a
+     * generation, or its fitness history has been merged to fit a limit
+     */
+    public void save(World world, File file) throws IOException {
+        GeneticEngine genE = world.getGeneticEngine();
+        if (genE == null || world.getGenLoopCount() != 0)
+            throw new IllegalStateException(
+                    "A world can only be saved between generations");
+
+        DoubleSeries avgFitnesses = genE.getAverageFitnesses();
+        DoubleSeries highFitnesses = genE.getHighestFitnesses();
+        if (avgFitnesses.getStride() != 1 || highFitnesses.getStride() != 1)
+            throw new IllegalStateException(
+                    "A merged fitness history can't be saved");
+        ArrayList<Genotype> population = genE.getPopulation();
+        int generations = avgFitnesses.size();
+        int words = population.isEmpty() ? 0 :
+                population.get(0).getChromosome().getWordCount();
+
+        long size = HEADER_SIZE + 16L * generations + 8 +
+                8L * words * population.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Checkpoint is too big");
+        if (buffer.capacity() < size)
+            buffer = ByteBuffer.allocateDirect(
+                    (int) Math.min(Integer.MAX_VALUE, size * 3 / 2));
+        buffer.clear();
+
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(FILE_VERSION);
+        buffer.putInt(world.getMinX());
+        buffer.putInt(world.getMinY());
+        buffer.putInt(world.getWidth());
+        buffer.putInt(world.getHeight());
+        buffer.putInt(world.getNumFoods());
+        buffer.putInt(world.getNumGenLoops());
+        buffer.putInt(world.getMaxFeeders());
+        buffer.putInt(world.getMaxFoods());
+        buffer.putDouble(world.getCrossoverProbability());
+        buffer.putDouble(world.getMutationProbability());
+        buffer.put((byte) (world.isEventDriven() ? 1 : 0));
+        buffer.putLong(world.getSeed());
+        buffer.putLong(world.getGenerationSeed());
+        buffer.putInt(world.getGenerationFeederCount());
+
+        buffer.putInt(generations);
+        for (int i = 0; i < generations; i++) {
+            buffer.putDouble(avgFitnesses.get(i));
+        }
+        for (int i = 0; i < generations; i++) {
+            buffer.putDouble(highFitnesses.get(i));
+        }
+
+        buffer.putInt(population.size());
+        buffer.putInt(World.CHROMOSOME_LENGTH);
+        for (Genotype g : population) {
+            Genome chromosome = g.getChromosome();
+            for (int i = 0; i < words; i++) {
+                buffer.putLong(chromosome.getWord(i));
+            }
+        }
+        buffer.flip();
+
+        // write next to the old checkpoint, then swap the new one in
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            channel.close();
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Puts a world back the way it was when a checkpoint was saved. The
+     * world's bounds, limits, food, generation length, rates, mode and seed
+     * are all set from the checkpoint, and its population size is set to the
+     * checkpoint's population.
+     * @param world the world to resume
+     * @param file the checkpoint file to read
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file isn't a checkpoint, or
+     * holds more feeders or food than its own limits allow
+     */
+    public static void load(World world, File file) throws IOException {
+        ByteBuffer data;
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Not a checkpoint");
+            data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) break;
+            }
+        } finally {
+            channel.close();
+        }
+        data.flip();
+
+        if (data.remaining() < HEADER_SIZE || data.getInt() != FILE_MAGIC)
+            throw new IllegalArgumentException("Not a checkpoint");
+        int version = data.getInt();
+        if (version != FILE_VERSION)
+            throw new IllegalArgumentException(
+                    "Unsupported checkpoint version " + version);
+
+        int x = data.getInt();
+        int y = data.getInt();
+        int width = data.getInt();
+        int height = data.getInt();
+        int numFoods = data.getInt();
+        int numGenLoops = data.getInt();
+        int maxFeeders = data.getInt();
+        int maxFoods = data.getInt();
+        double crossoverProbability = data.getDouble();
+        double mutationProbability = data.getDouble();
+        boolean eventDriven = data.get() != 0;
+        long masterSeed = data.getLong();
+        long generationSeed = data.getLong();
+        int feederCount = data.getInt();
+
+        int generations = data.getInt();
+        if (generations < 0 || data.remaining() < 16L * generations + 8)
+            throw new IllegalArgumentException("Checkpoint is damaged");
+        double[] avgFitnesses = new double[generations];
+        double[] highFitnesses = new double[generations];
+        data.asDoubleBuffer().get(avgFitnesses).get(highFitnesses);
+        data.position(data.position() + 16 * generations);
+
+        int populationSize = data.getInt();
+        int chromosomeLength = data.getInt();
+        if (chromosomeLength != World.CHROMOSOME_LENGTH)
+            throw new IllegalArgumentException("Checkpoint has "
+                    + chromosomeLength + " bit chromosomes, feeders have "
+                    + World.CHROMOSOME_LENGTH);
+        int words = new Genome(chromosomeLength).getWordCount();
+        if (populationSize < 0 ||
+                data.remaining() != 8L * words * populationSize)
+            throw new IllegalArgumentException("Checkpoint is damaged");
+        if (populationSize > maxFeeders || numFoods > maxFoods)
+            throw new IllegalArgumentException(
+                    "Checkpoint holds more than its limits allow");
+        ArrayList<Genotype> population =
+                new ArrayList<Genotype>(populationSize);
+        for (int p = 0; p < populationSize; p++) {
+            Genome chromosome = new Genome(chromosomeLength);
+            for (int i = 0; i < words; i++) {
+                chromosome.setWord(i, data.getLong());
+            }
+            population.add(new Genotype(chromosome));
+        }
+
+        world.setBounds(x, y, width, height);
+        // the limits go first, so they don't cut the counts down
+        world.setMaxFeeders(maxFeeders);
+        world.setMaxFoods(maxFoods);
+        world.setNumFeeders(populationSize);
+        world.setNumFoods(numFoods);
+        world.setNumGenLoops(numGenLoops);
+        world.setCrossoverProbability(crossoverProbability);
+        world.setMutationProbability(mutationProbability);
+        world.setEventDriven(eventDriven);
+        world.setSeed(masterSeed);
+        world.resume(population, avgFitnesses, highFitnesses,
+                generationSeed, feederCount);
+    }
+}
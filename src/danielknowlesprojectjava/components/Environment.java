@@ -1,38 +1,40 @@
 package danielknowlesprojectjava.components;
 
-import danielknowlesprojectjava.collections.FeederCollection;
-import danielknowlesprojectjava.collections.FoodCollection;
 import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
-import danielknowlesprojectjava.geneticAlgorithm.Genotype;
 import java.awt.*;
-import java.util.*;
 import javax.swing.*;
 
 /**
- * The environment that the feeders and food live in.
+ * The environment that the feeders and food live in. The environment
+ * displays the world and runs it on the simulation thread.
  */
 public class Environment extends JComponent {
-    // the width and height of the environment
-    private static int width;
-    private static int height;
-    private static int x;
-    private static int y;
     // tells the application if the envirnoment is running (useful for pausing)
-    private boolean running;
-    // the maximum number of feeders in the environment
-    public static final int MAX_FEEDERS = 500;
-    // the maximum number of food in the environment
-    public static final int MAX_FOOD = 500;
-    public static Random rnd = new Random();
-    private static int numFeeders = 20;
-    private static int numFoods = 250;
-    // The genetic engine that will evaluate and evolve the feeders
-    public GeneticEngine genE;
-    // the number of iterations through the game loop to run through before
-    //  advancing to the next generation
-    private int numGenLoops = 7300; // 365 * 20
-    private int genLoopCount = 0;
+    private volatile boolean running;
+    // the world being displayed
+    private final World world = new World();
     private EnvironmentFrame parentFrame;
+    // the default number of simulation ticks per second
+    public static final int DEFAULT_TICKS_PER_SECOND = 200;
+    // the number of simulation ticks per second (zero is as fast as possible)
+    private int ticksPerSecond = DEFAULT_TICKS_PER_SECOND;
+    // the thread that runs the simulation loop
+    private SimulationThread simThread;
+    // guards the feeders and food while a tick is running or being rendered
+    private final Object worldLock = new Object();
+    // draw the feeders and food
+    private final FeederRenderer feederRenderer = new FeederRenderer();
+    private final FoodRenderer foodRenderer = new FoodRenderer();
+    // the longest time (in nanoseconds) a batch of fast-forward ticks holds
+    // the world lock, so that pausing and resetting stay responsive
+    private static final long FAST_FORWARD_BATCH_TIME = 1000000000L / 20;
+    // the generation count to fast-forward to, or -1 when rendering normally
+    private volatile int fastForwardTarget = -1;
+    // the generation count and tick when fast-forwarding started
+    private int fastForwardStartGen;
+    private int fastForwardStartTick;
+    // how much of the fast-forward is done (0 to 1), for the progress bar
+    private volatile double fastForwardProgress;
 
     /**
      * Creates a new environment with default values.
@@ -41,6 +43,16 @@ public class Environment extends JComponent {
         super();
 
         parentFrame = parent;
+        world.setGenerationListener(new GenerationListener() {
+            public void generationAdvanced(int genNumber, double avgFit,
+                    double highFit) {
+                // the dialog hands the row over to the event dispatch thread
+                // itself, along with any others that come in before it runs
+                GAPerformanceDialog dialog = parentFrame.gpDialog;
+                if (dialog != null)
+                    dialog.addTableRow(genNumber, avgFit, highFit);
+            }
+        });
     }
 
     /**
@@ -50,213 +62,217 @@ public class Environment extends JComponent {
     @Override
     public void paintComponent(Graphics g)
     {
-        // We use the paintComponent method for the game loop.
-        // After drawing the feeders and food, call updateEnvironment().
-        // updateEnvironment() calls repaint() when it's finished, which in turn
-        // calls paintComponent(), and we do it all again.
-        
-        updateEnvironment(g);
+        if (isFastForwarding()) {
+            paintFastForwardProgress(g);
+            return;
+        }
+
+        // The game loop runs on the simulation thread, so all we do here is
+        // draw the state left behind by the last tick. Hold the world lock so
+        // that a tick can't change the feeders and food half way through.
+        synchronized (worldLock) {
+            if (world.getFoodCollection().getFoods() == null ||
+                world.getFeederCollection().getFeeders() == null)
+                return;
 
+            foodRenderer.draw(g, world.getFoodCollection().getFoods());
+            feederRenderer.draw(g, world.getFeederCollection().getFeeders());
+        }
     }
 
     /**
-     * Tells the feeders to render themselves to the environment.
-     * @param g the graphics context used to draw the feeders
+     * Draws the fast-forward progress bar in place of the world.
+     * @param g the graphics context
      */
-    private void drawFeeders(Graphics g) {
-        // call the paint method for each feeder
-        for (Feeder f : FeederCollection.getFeeders()) {
-            f.paintComponent(g);
-        }
+    private void paintFastForwardProgress(Graphics g) {
+        int target = fastForwardTarget;
+        if (target < 0) return;
+
+        int barWidth = getWidth() / 2;
+        int barHeight = 16;
+        int barX = (getWidth() - barWidth) / 2;
+        int barY = getHeight() / 2;
+
+        g.setColor(Color.BLACK);
+        g.drawString("Fast-forwarding to generation " + target + "...",
+                barX, barY - 8);
+        g.drawRect(barX, barY, barWidth, barHeight);
+        g.setColor(Color.GRAY);
+        g.fillRect(barX + 1, barY + 1,
+                (int) ((barWidth - 1) * fastForwardProgress), barHeight - 1);
     }
 
     /**
-     * Tells the food objects to render themselves tothe environment.
-     * @param g the graphics context used to draw the food objects
+     * Runs the rest of the current generation without rendering anything,
+     * then goes back to normal rendered mode. The performance table is still
+     * updated as each generation finishes.
      */
-    private void drawFood(Graphics g) {
-        // call the paint method for each food
-        for (Food f : FoodCollection.getFoods()) {
-            // make sure the food hasn't been eaten before rendering it.
-            if (f.isActive())
-                f.paintComponent(g);
-        }
-    }
+    public void fastForward() { fastForward(1); }
 
     /**
-     * Updates the environment.
+     * Runs the rest of the current generation and the generations after it
+     * without rendering anything, then goes back to normal rendered mode.
+     * Only a progress bar is drawn while fast-forwarding. The performance
+     * table is still updated as each generation finishes.
+     * @param generations the number of generations to finish, counting the
+     * current one
      */
-    private void updateEnvironment(Graphics g) {
-        // see if application is paused
-        if (running) {
-            drawFood(g);
-            drawFeeders(g);
-            // loop through all food and feeders
-            for (Food fd : FoodCollection.getFoods()) {
-                // make sure the food is still active
-                if (fd.isActive()) {
-                    for (Feeder fr : FeederCollection.getFeeders()) {
-                        // if the feeder "sees" the food, react to it.
-                        if (fd.isPerceived(fr)) {// &&
-                                //!fr.getObservedFood().contains(fd)) {
-                            fr.reactTo(fd);
-                        }
-                    }
-                }
-            }
-            // update all of the feeders
-            for (Feeder fr : FeederCollection.getFeeders()) {
-                fr.update();
-            }
-                  
-            // if the generation loop count is the same as the number of generation
-            //  loops until the next generation, advance the generation
-            if (++genLoopCount == numGenLoops) {
-                advanceTheGeneration();
-                // make sure we reset the loop counter
-                genLoopCount = 0;
-            }
+    public void fastForward(int generations) {
+        synchronized (worldLock) {
+            fastForwardStartGen = world.getGenerationCount();
+            fastForwardStartTick = world.getGenLoopCount();
+            fastForwardProgress = 0;
+            fastForwardTarget = fastForwardStartGen + Math.max(1, generations);
         }
-        // repaint the component
         repaint();
     }
 
     /**
-     * Gets the genetic engine used by the environment.
-     * @return the genetic engine used by the environment
+     * Stops fast-forwarding and goes back to normal rendered mode.
      */
-    public GeneticEngine getGeneticEngine() { return genE; }
-
-    /**
-     * Sets the number of feeders in the environment.
-     * @param n the number of feeders in the environment
-     */
-    public static void setNumFeeders(int n) {
-        if (n < MAX_FEEDERS) numFeeders = n;
-        else numFeeders = MAX_FEEDERS;
+    public void stopFastForward() {
+        fastForwardTarget = -1;
+        repaint();
     }
+
     /**
-     * Gets the number of feeders in the environment.
-     * @return the number of feeders in the environment
+     * Determines if the environment is fast-forwarding.
+     * @return true if fast-forwarding, false if rendering normally
      */
-    public static int getNumFeeders() { return numFeeders;}
+    public boolean isFastForwarding() { return fastForwardTarget >= 0; }
+
     /**
-     * Sets the number of food objects in the environment.
-     * @param n the number of food objects in the environment
+     * Runs a batch of ticks towards the fast-forward target. This is called by
+     * the simulation thread instead of step() while fast-forwarding.
+     * @return true if any ticks were run, false if the environment is paused
      */
-    public static void setNumFoods(int n) {
-        if (n < MAX_FOOD) numFoods = n;
-        else numFoods = MAX_FOOD;
+    boolean fastForwardStep() {
+        if (!running) return false;
+
+        synchronized (worldLock) {
+            if (!running) return false;
+
+            long end = System.nanoTime() + FAST_FORWARD_BATCH_TIME;
+            int target = fastForwardTarget;
+            while (target >= 0 && world.getGenerationCount() < target &&
+                   System.nanoTime() < end) {
+                world.step();
+                target = fastForwardTarget;
+            }
+
+            if (target >= 0) {
+                long loops = world.getNumGenLoops();
+                long total = (target - fastForwardStartGen) * loops -
+                        fastForwardStartTick;
+                long done = (world.getGenerationCount() - fastForwardStartGen) *
+                        loops + world.getGenLoopCount() - fastForwardStartTick;
+                fastForwardProgress = total > 0 ? (double) done / total : 1;
+
+                if (world.getGenerationCount() >= target)
+                    fastForwardTarget = -1;
+            }
+        }
+
+        return true;
     }
-    /**
-     * Gets the number of food objects in the environment.
-     * @return the number of food objects in the environment
-     */
-    public static int getNumFoods() { return numFoods; }
 
-    @Override
-    public int getWidth() { return width; }
     /**
-     * Sets the width of the environment.
-     * @param value the width of the environment
+     * Advances the environment by one tick. This is called by the simulation
+     * thread and does not render anything.
+     * @return true if a tick was run, false if the environment is paused
      */
-    public void setWidth(int value) { width = value; }
+    boolean step() {
+        // see if application is paused
+        if (!running) return false;
 
-    @Override
-    public int getHeight() { return height; }
-    /**
-     * Sets the height of the environment.
-     * @param value the height of the environment
-     */
-    public void setHeight(int value) { height = value; }
+        synchronized (worldLock) {
+            // check again now that we hold the lock, the environment may
+            // have been paused while we were waiting for it
+            if (!running) return false;
 
-    /**
-     * Gets the lowest x coordinate objects are allowed to have in the
-     * environment.
-     * @return the minimum x coordinate in the environment
-     */
-    public static int getMinX() { return x; }
-    /**
-     * Gets the highest x coordinate objects are allowed to have in the
-     * environment.
-     * @return the maximum x coordinate in the environment
-     */
-    public static int getMaxX() {
-        return x + width - 15;
+            world.step();
+        }
+
+        return true;
     }
 
     /**
-     * Gets the lowest y coordinate objects are allowed to have in the
-     * environment.
-     * @return the minimum y coordinate in the environment
+     * Gets the number of ticks the simulation runs each second.
+     * @return the tick rate, or zero if the simulation runs as fast as
+     * possible
      */
-    public static int getMinY() { return y; }
-    /**
-     * Gets the highest y coordinate objects are allowed to have in the
-     * environment.
-     * @return the maximum y coordinate in the environment
-     */
-    public static int getMaxY() { return y + height - 15; }
+    public int getTicksPerSecond() { return ticksPerSecond; }
 
     /**
-     * Creates random food objects and place them into the food collection.
+     * Sets the number of ticks the simulation runs each second.
+     * @param value the tick rate, or zero to run as fast as possible
      */
-    private void createFoods() {
-        FoodCollection.clearFoods();
+    public void setTicksPerSecond(int value) {
+        ticksPerSecond = Math.max(0, value);
 
-        for (int i = 0; i < numFoods; i++) {
-            FoodCollection.addFood(Food.getRandomFood());
+        if (simThread != null) {
+            simThread.setTicksPerSecond(ticksPerSecond);
+            // wake the thread up so that it picks up the new rate right away
+            simThread.interrupt();
         }
     }
 
     /**
-     * Creates feeders from the genetic engine's population and adds them to
-     * the feeder collection.
+     * Starts the simulation thread if it isn't already running.
      */
-    private void createFeeders() {
-        FeederCollection.clearFeeders();
-
-        for (Genotype g : genE.getPopulation()) {
-            FeederCollection.addFeeder(new Feeder(g.getChromosome()));
+    private void startSimulation() {
+        if (simThread == null) {
+            simThread = new SimulationThread(this, ticksPerSecond);
+            simThread.start();
         }
     }
 
     /**
-     * Initializes the genetic engine with default values.
+     * Gets the genetic engine used by the environment.
+     * @return the genetic engine used by the environment
      */
-    private void initializeGenE() {
-        // create a new genetic engine
-        genE = new GeneticEngine(numFeeders, Integer.MAX_VALUE, 12);
-    }
+    public GeneticEngine getGeneticEngine() { return world.getGeneticEngine(); }
 
-    private void advanceTheGeneration() {
-        // advance the population
-        genE.evaluatePopulation();
-        // create new feeders from the new population
-        createFeeders();
-        FoodCollection.clearFoods();
-        createFoods();
+    /**
+     * Gets the world displayed by the environment.
+     * @return the world
+     */
+    public World getWorld() { return world; }
 
-        int genNumber = genE.getAverageFitnesses().size();
-        double avgFit = genE.getAverageFitnesses().get(genNumber - 1);
-        double highFit = genE.getHighestFitnesses().get(genNumber - 1);
+    @Override
+    public int getWidth() { return world.getWidth(); }
+    /**
+     * Sets the width of the environment.
+     * @param value the width of the environment
+     */
+    public void setWidth(int value) {
+        world.setBounds(world.getMinX(), world.getMinY(), value,
+                world.getHeight());
+    }
 
-        parentFrame.gpDialog.addTableRow(genNumber, avgFit, highFit);
+    @Override
+    public int getHeight() { return world.getHeight(); }
+    /**
+     * Sets the height of the environment.
+     * @param value the height of the environment
+     */
+    public void setHeight(int value) {
+        world.setBounds(world.getMinX(), world.getMinY(), world.getWidth(),
+                value);
     }
 
     @Override
-    public int getX() { return x; }
+    public int getX() { return world.getMinX(); }
 
     @Override
-    public int getY() { return y; }
+    public int getY() { return world.getMinY(); }
 
     @Override
     public void setLocation(int x, int y)
     {
-        Environment.x = x;
-        Environment.y = y;
+        world.setBounds(x, y, world.getWidth(), world.getHeight());
     }
- 
+
     /**
      * Pauses the application.
      */
@@ -275,24 +291,18 @@ public class Environment extends JComponent {
         return running;
     }
 
-    /**
-     * Clears the environment.
-     */
-    private void clearEnvironment() {
-        // clear out collections
-        FeederCollection.clearFeeders();
-        FoodCollection.clearFoods();
-        // reset the feeder counts
-        Feeder.resetFeederCount();
-    }
-
     /**
      * Resets the environment to its initial state during this run.
      */
     public void resetEnvironment() {
-        parentFrame.gpDialog.clearTable();
-        clearEnvironment();
-        initializeEnvironment();
+        stopFastForward();
+        synchronized (worldLock) {
+            world.clear();
+            // the old run can't add any more rows once the world is cleared
+            parentFrame.gpDialog.clearTable();
+            initializeWorld();
+        }
+        repaint();
     }
 
     /**
@@ -300,18 +310,23 @@ public class Environment extends JComponent {
      * options.
      */
     public void initializeEnvironment() {
-        // initialize feeders list
-        FeederCollection.setFeeders(new ArrayList<Feeder>());
-        // initialize the foods list
-        FoodCollection.setFoods(new ArrayList<Food>());
+        synchronized (worldLock) {
+            initializeWorld();
+        }
+        // start running the game loop
+        startSimulation();
+    }
+
+    /**
+     * Sets up the feeders, food and genetic engine with the current options.
+     */
+    private void initializeWorld() {
         // set default render options for feeders
-        Feeder.showFieldOfVision();
+        FeederRenderer.showFieldOfVision();
         // add a border so that the user will know where the environment is
         // located on the parent frame.
         setBorder(BorderFactory.createLineBorder(Color.BLACK));
-        initializeGenE();
-        createFoods();
-        createFeeders();
+        world.initialize();
         // set the environment's running flag
         running = true;
     }
@@ -15,11 +15,22 @@ public class EnvironmentFrame extends JFrame {
     public GAPerformanceDialog gpDialog;
 
     /**
-     * Creates a new environment frame
+     * Creates a new environment frame with a random master seed.
      * @param width the width of the frame
      * @param height the height of the frame
      */
     public EnvironmentFrame(int width, int height)
+    {
+        this(width, height, new RandomService().getMasterSeed());
+    }
+
+    /**
+     * Creates a new environment frame
+     * @param width the width of the frame
+     * @param height the height of the frame
+     * @param seed the master seed for the environment's random numbers
+     */
+    public EnvironmentFrame(int width, int height, long seed)
     {
         super();
 
@@ -34,6 +45,7 @@ public class EnvironmentFrame extends JFrame {
 
         // Set up the environment
         e = new Environment(this);
+        e.getWorld().setSeed(seed);
         e.setHeight(height - HEIGHTOFFSET);
         e.setWidth(width - WIDTHOFFSET);
         e.setLocation(XOFFSET, YOFFSET);
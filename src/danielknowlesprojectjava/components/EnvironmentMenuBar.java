@@ -6,10 +6,13 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import javax.swing.AbstractButton;
+import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JRadioButtonMenuItem;
 import javax.swing.SwingConstants;
 
 /**
@@ -68,13 +71,13 @@ class EnvironmentMenuBar extends JMenuBar {
         JMenu optionsMenu = new JMenu("Options");
         JCheckBoxMenuItem displayFOVItem = 
                 new JCheckBoxMenuItem("Show Feeders' Fields of Vision");
-        displayFOVItem.setState(Feeder.isVisionDisplayed());
+        displayFOVItem.setState(FeederRenderer.isVisionDisplayed());
         JCheckBoxMenuItem displayEatenItem = 
                 new JCheckBoxMenuItem("Show Food Eaten");
-        displayEatenItem.setState(Feeder.isEatenDisplayed());
+        displayEatenItem.setState(FeederRenderer.isEatenDisplayed());
         JCheckBoxMenuItem displayIDItem = 
                 new JCheckBoxMenuItem("Show Feeder ID");
-        displayIDItem.setState(Feeder.isIDDisplayed());
+        displayIDItem.setState(FeederRenderer.isIDDisplayed());
         JMenuItem addOptionsItem = new JMenuItem("Additional Options...");
 
 
@@ -86,11 +89,11 @@ class EnvironmentMenuBar extends JMenuBar {
                 AbstractButton button = (AbstractButton) e.getItem();
                 if (button.isSelected())
                 {
-                    Feeder.showFieldOfVision();
+                    FeederRenderer.showFieldOfVision();
                 }
                 else
                 {
-                    Feeder.hideFieldOfVision();
+                    FeederRenderer.hideFieldOfVision();
                 }
             }
         });
@@ -103,11 +106,11 @@ class EnvironmentMenuBar extends JMenuBar {
                 AbstractButton button = (AbstractButton) e.getItem();
                 if (button.isSelected())
                 {
-                    Feeder.displayFeederID();
+                    FeederRenderer.displayFeederID();
                 }
                 else
                 {
-                    Feeder.hideFeederID();
+                    FeederRenderer.hideFeederID();
                 }
             }
         });
@@ -120,11 +123,11 @@ class EnvironmentMenuBar extends JMenuBar {
                 AbstractButton button = (AbstractButton) e.getItem();
                 if (button.isSelected())
                 {
-                    Feeder.displayFoodEaten();
+                    FeederRenderer.displayFoodEaten();
                 }
                 else
                 {
-                    Feeder.hideFoodEaten();
+                    FeederRenderer.hideFoodEaten();
                 }
             }
         });
@@ -136,11 +139,128 @@ class EnvironmentMenuBar extends JMenuBar {
         optionsMenu.add(displayIDItem);
         optionsMenu.add(displayEatenItem);
         optionsMenu.add(new javax.swing.JSeparator(SwingConstants.HORIZONTAL));
+        optionsMenu.add(getSpeedMenu());
+        optionsMenu.add(getFastForwardMenu());
         optionsMenu.add(addOptionsItem);
 
         return optionsMenu;
     }
 
+    /**
+     * Creates the simulation speed menu.
+     * @return the simulation speed menu
+     */
+    private JMenu getSpeedMenu()
+    {
+        JMenu speedMenu = new JMenu("Simulation Speed");
+        ButtonGroup speedGroup = new ButtonGroup();
+
+        speedMenu.add(getSpeedItem("Normal",
+                Environment.DEFAULT_TICKS_PER_SECOND, speedGroup));
+        speedMenu.add(getSpeedItem("Fast",
+                Environment.DEFAULT_TICKS_PER_SECOND * 5, speedGroup));
+        speedMenu.add(getSpeedItem("As Fast As Possible", 0, speedGroup));
+
+        return speedMenu;
+    }
+
+    /**
+     * Creates a menu item that sets the simulation's tick rate.
+     * @param text the text of the menu item
+     * @param ticksPerSecond the tick rate to set (zero is as fast as possible)
+     * @param group the button group the menu item belongs to
+     * @return the speed menu item
+     */
+    private JRadioButtonMenuItem getSpeedItem(String text,
+            final int ticksPerSecond, ButtonGroup group)
+    {
+        JRadioButtonMenuItem speedItem = new JRadioButtonMenuItem(text);
+        speedItem.setSelected(
+                ticksPerSecond == Environment.DEFAULT_TICKS_PER_SECOND);
+
+        speedItem.addActionListener(
+            new ActionListener()
+        {
+            public void actionPerformed(ActionEvent event)
+            {
+                parentFrame.getEnvironment().setTicksPerSecond(ticksPerSecond);
+            }
+        });
+
+        group.add(speedItem);
+        return speedItem;
+    }
+
+    /**
+     * Creates the fast-forward menu.
+     * @return the fast-forward menu
+     */
+    private JMenu getFastForwardMenu()
+    {
+        JMenu fastForwardMenu = new JMenu("Fast Forward");
+        JMenuItem otherItem = new JMenuItem("Next Generations...");
+        JMenuItem stopItem = new JMenuItem("Stop Fast Forward");
+
+        otherItem.addActionListener(
+            new ActionListener()
+        {
+            public void actionPerformed(ActionEvent event)
+            {
+                String value = JOptionPane.showInputDialog(parentFrame,
+                        "Number of generations to fast-forward:", "50");
+                if (value == null) return;
+
+                try {
+                    parentFrame.getEnvironment().fastForward(
+                            Integer.parseInt(value.trim()));
+                } catch (NumberFormatException ex) {
+                    JOptionPane.showMessageDialog(parentFrame,
+                            "The number of generations must be an integer.");
+                }
+            }
+        });
+
+        stopItem.addActionListener(
+            new ActionListener()
+        {
+            public void actionPerformed(ActionEvent event)
+            {
+                parentFrame.getEnvironment().stopFastForward();
+            }
+        });
+
+        fastForwardMenu.add(getFastForwardItem("Finish This Generation", 1));
+        fastForwardMenu.add(getFastForwardItem("Next 10 Generations", 10));
+        fastForwardMenu.add(getFastForwardItem("Next 50 Generations", 50));
+        fastForwardMenu.add(otherItem);
+        fastForwardMenu.add(new javax.swing.JSeparator(SwingConstants.HORIZONTAL));
+        fastForwardMenu.add(stopItem);
+
+        return fastForwardMenu;
+    }
+
+    /**
+     * Creates a menu item that fast-forwards a number of generations.
+     * @param text the text of the menu item
+     * @param generations the number of generations to fast-forward
+     * @return the fast-forward menu item
+     */
+    private JMenuItem getFastForwardItem(String text, final int generations)
+    {
+        JMenuItem fastForwardItem = new JMenuItem(text);
+
+        fastForwardItem.addActionListener(
+            new ActionListener()
+        {
+            public void actionPerformed(ActionEvent event)
+            {
+                parentFrame.getEnvironment().fastForward(generations);
+            }
+        });
+
+        return fastForwardItem;
+    }
+
     /**
      * Creates the view menu.
      * @return the view menu
@@ -0,0 +1,659 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.collections.FoodGrid;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a world's feeders from event to event instead of tick by tick.
+ *
+ * Between the ticks where something happens to it, a feeder just moves in a
+ * straight line at a constant speed: either it has no food in mind and keeps
+ * its heading, or it is walking straight at the closest food it has
+ * observed. So for each feeder the scheduler works out, from its location
+ * and movement vector, the first tick on which
+ * <ul>
+ * <li>it reaches the food it is heading for,</li>
+ * <li>it walks into a wall and has to turn, or</li>
+ * <li>it notices a food object it hasn't observed yet,</li>
+ * </ul>
+ * and puts that tick in a priority queue. The feeders are left where they
+ * are until their event comes up, then moved along their path in one go and
+ * given one ordinary tick (steering, eating and moving, with claims on the
+ * same food settled in index order like the world does). When food is eaten,
+ * every other feeder that was heading for it gets an event on the next tick
+ * so that it can pick a new target, just as it would in tick mode.
+ *
+ * Noticing food is random: on every tick a food object is in view, tick mode
+ * rolls against the feeder's intelligence. The scheduler finds the ticks on
+ * which each food object is in view analytically and draws the tick of the
+ * first successful roll from the matching geometric distribution, so a
+ * feeder notices food on the same ticks with the same probabilities as in
+ * tick mode. The rolls come from a different random number stream, so a
+ * seeded world gives repeatable results in event mode, but not the same
+ * results as the same seed in tick mode.
+ *
+ * The feeding outcomes match tick mode within these tolerances:
+ * <ul>
+ * <li>locations are found by one multiply instead of many adds, so they
+ * differ from tick mode by floating point rounding only;</li>
+ * <li>the first and last tick a food object is in view are found from the
+ * continuous path and rounded, so they can be off by one tick when the food
+ * sits right on the edge of a feeder's cone or eyesight;</li>
+ * <li>the ticks a food object is in view are treated as one span per test
+ * point, which is exact for the straight paths feeders follow.</li>
+ * </ul>
+ * Over many seeds the average and highest fitness of each generation agree
+ * with tick mode to within the spread between seeds (see the README for the
+ * measured figures).
+ */
+class EventScheduler {
+    // the most ticks a feeder is left alone before its next event is worked
+    // out again. this keeps the stretch of path searched for food short.
+    static final int HORIZON = 256;
+    // marks a feeder with no event before the end of the generation
+    private static final int NEVER = Integer.MAX_VALUE;
+    // how far a movement vector can be from pointing straight at a target
+    // and still count as heading for it
+    private static final double HEADING_TOLERANCE = 1e-9;
+    // slack used when turning the continuous spans into whole ticks
+    private static final double EPSILON = 1e-9;
+    // the world being run
+    private final World world;
+    // the random number stream used to decide when food is noticed
+    private SplittableRandom random;
+    // pending events, each stored as the tick in the high 32 bits and the
+    // feeder's index in the low 32 bits, kept as a binary min-heap
+    private long[] heap = new long[64];
+    private int heapSize = 0;
+    // the tick of each feeder's next event (NEVER if it has none). heap
+    // entries that don't match are stale and skipped.
+    private int[] nextTick = new int[0];
+    // the tick each feeder's location was last brought up to date at
+    private int[] baseTick = new int[0];
+    // the food each feeder is heading for (null if none)
+    private Food[] target = new Food[0];
+    // the feeders heading for each food object, as lists linked through
+    // headingNext and headingPrev (-1 ends a list). when food is eaten, the
+    // feeders that have to pick a new target are found without checking
+    // every feeder.
+    private int[] headingFirst = new int[0];
+    private int[] headingNext = new int[0];
+    private int[] headingPrev = new int[0];
+    // the food eaten on the tick being run
+    private final ArrayList<Food> eaten = new ArrayList<Food>();
+    // the food each feeder notices at its next event
+    private final ArrayList<ArrayList<Food>> noticed =
+            new ArrayList<ArrayList<Food>>();
+    // the feeders that have an event on the tick being run
+    private int[] batch = new int[0];
+    // reused to hold the food near a feeder's path
+    private final ArrayList<Food> nearby = new ArrayList<Food>();
+    // reused to hold the whole-tick spans a food object is in view for
+    private final int[] spanStart = new int[5];
+    private final int[] spanEnd = new int[5];
+    // reused to hold a continuous span while it is being narrowed
+    private double spanLow;
+    private double spanHigh;
+
+    /**
+     * Creates a new event scheduler. Call start() before running it.
+     * @param world the world to run
+     */
+    EventScheduler(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Works out every feeder's first event from where they are now. Called
+     * whenever the world creates a new set of feeders and food, or when the
+     * world switches from tick mode in the middle of a generation.
+     * @param tick the number of ticks already run in the generation
+     */
+    void start(int tick) {
+        FeederState fs = world.getFeederCollection().getState();
+        int n = fs.size();
+
+        random = world.getRandomService().newStream();
+        heapSize = 0;
+        if (nextTick.length < n) {
+            nextTick = new int[n];
+            baseTick = new int[n];
+            target = new Food[n];
+            headingNext = new int[n];
+            headingPrev = new int[n];
+            batch = new int[n];
+        }
+        int foods = world.getFoodCollection().getFoods().size();
+        if (headingFirst.length < foods)
+            headingFirst = new int[foods];
+        Arrays.fill(headingFirst, -1);
+        while (noticed.size() < n) {
+            noticed.add(new ArrayList<Food>());
+        }
+
+        for (int i = 0; i < n; i++) {
+            baseTick[i] = tick;
+            target[i] = null;
+            noticed.get(i).clear();
+            schedule(fs, i, tick);
+        }
+    }
+
+    /**
+     * Runs every event up to and including a tick. Feeders without an event
+     * are left where they were last put; use syncAll() to bring them up to
+     * date.
+     * @param tick the last tick to run
+     */
+    void runTo(int tick) {
+        while (heapSize > 0 && (int) (heap[0] >>> 32) <= tick) {
+            runTick((int) (heap[0] >>> 32));
+        }
+    }
+
+    /**
+     * Moves every feeder to where it is at a tick, so the world can be
+     * drawn or handed back to tick mode.
+     * @param tick the tick to move the feeders to
+     */
+    void syncAll(int tick) {
+        FeederState fs = world.getFeederCollection().getState();
+
+        for (int i = 0; i < fs.size(); i++) {
+            if (sync(fs, i, tick))
+                fs.feeders[i].calcPerceptionPoints();
+        }
+    }
+
+    /**
+     * Moves a feeder along its path to where it is at a tick.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param tick the tick to move the feeder to
+     * @return true if the feeder moved
+     */
+    private boolean sync(FeederState fs, int i, int tick) {
+        int ticks = tick - baseTick[i];
+        if (ticks <= 0) return false;
+
+        fs.x[i] += ticks * fs.vx[i];
+        fs.y[i] += ticks * fs.vy[i];
+        baseTick[i] = tick;
+        return true;
+    }
+
+    /**
+     * Runs one tick for every feeder that has an event on it, in the same
+     * order as the world's phases.
+     * @param tick the tick to run
+     */
+    private void runTick(int tick) {
+        FeederState fs = world.getFeederCollection().getState();
+
+        // the heap hands out a tick's events in index order, which is the
+        // order claims have to be settled in
+        int n = 0;
+        while (heapSize > 0 && (int) (heap[0] >>> 32) == tick) {
+            int i = (int) heap[0];
+            pop();
+            if (nextTick[i] != tick) continue;
+            nextTick[i] = NEVER;
+            batch[n++] = i;
+        }
+
+        // perceive, from where each feeder was at the end of the last tick
+        for (int b = 0; b < n; b++) {
+            int i = batch[b];
+            sync(fs, i, tick - 1);
+
+            ArrayList<Food> list = noticed.get(i);
+            for (int j = 0; j < list.size(); j++) {
+                if (list.get(j).isActive())
+                    fs.feeders[i].observe(list.get(j));
+            }
+            list.clear();
+            fs.feeders[i].registerObserved();
+        }
+
+        for (int b = 0; b < n; b++) {
+            fs.feeders[batch[b]].steer();
+        }
+
+        eaten.clear();
+        for (int b = 0; b < n; b++) {
+            int i = batch[b];
+            Food claim = fs.claimed[i];
+            int foodEaten = fs.foodEaten[i];
+            fs.feeders[i].resolveClaim();
+            if (fs.foodEaten[i] != foodEaten)
+                eaten.add(claim);
+        }
+
+        double minX = world.getMinX();
+        double minY = world.getMinY();
+        double maxX = world.getMaxX();
+        double maxY = world.getMaxY();
+        for (int b = 0; b < n; b++) {
+            int i = batch[b];
+            fs.x[i] += fs.vx[i];
+            fs.y[i] += fs.vy[i];
+            baseTick[i] = tick;
+            if (fs.isOutOfBounds(i, minX, minY, maxX, maxY))
+                fs.feeders[i].adjustLocation();
+            fs.feeders[i].calcPerceptionPoints();
+        }
+
+        // anyone else heading for food that was just eaten picks a new
+        // target next tick, the same as in tick mode
+        if (tick < world.getNumGenLoops()) {
+            for (int e = 0; e < eaten.size(); e++) {
+                int j = headingFirst[eaten.get(e).getIndex()];
+                for (; j >= 0; j = headingNext[j]) {
+                    if (nextTick[j] > tick + 1) {
+                        noticed.get(j).clear();
+                        nextTick[j] = tick + 1;
+                        push(tick + 1, j);
+                    }
+                }
+            }
+        }
+
+        for (int b = 0; b < n; b++) {
+            schedule(fs, batch[b], tick);
+        }
+    }
+
+    /**
+     * Works out a feeder's next event and puts it in the queue.
+     * @param fs the feeder state
+     * @param i the feeder's index, whose location must be up to date
+     * @param tick the tick the feeder's location is for
+     */
+    private void schedule(FeederState fs, int i, int tick) {
+        Feeder fr = fs.feeders[i];
+        int genEnd = world.getNumGenLoops();
+
+        nextTick[i] = NEVER;
+        setTarget(i, fr.getTarget());
+        if (tick >= genEnd) return;
+
+        // the event is on tick (tick + 1 + last) at the latest, and the
+        // feeder's perception on that tick uses its location after moving
+        // last more times
+        int last = (int) Math.min(HORIZON, (long) genEnd - tick - 1);
+        if (target[i] != null) {
+            // a feeder that was just turned by a wall, or has just finished
+            // with its last target, needs to steer again next tick
+            if (isHeadingFor(fs, i, target[i]))
+                last = Math.min(last, getTicksToArrive(fs, i, target[i]));
+            else
+                last = 0;
+        }
+        last = Math.min(last, getTicksToWall(fs, i) - 1);
+
+        int first = findFirstNotice(fs, i, last);
+        nextTick[i] = tick + 1 + Math.min(first, last);
+        push(nextTick[i], i);
+    }
+
+    /**
+     * Changes the food a feeder is heading for, moving it from one food
+     * object's list of feeders to the other's.
+     * @param i the feeder's index
+     * @param f the new target (may be null)
+     */
+    private void setTarget(int i, Food f) {
+        Food old = target[i];
+        if (old == f) return;
+
+        if (old != null) {
+            int next = headingNext[i];
+            int prev = headingPrev[i];
+            if (prev >= 0) headingNext[prev] = next;
+            else headingFirst[old.getIndex()] = next;
+            if (next >= 0) headingPrev[next] = prev;
+        }
+
+        target[i] = f;
+        if (f != null) {
+            int first = headingFirst[f.getIndex()];
+            headingNext[i] = first;
+            headingPrev[i] = -1;
+            if (first >= 0) headingPrev[first] = i;
+            headingFirst[f.getIndex()] = i;
+        }
+    }
+
+    /**
+     * Determines if a feeder's movement vector points straight at its
+     * target, the way moveTo() sets it.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param f the target
+     * @return true if the feeder is heading for the target
+     */
+    private static boolean isHeadingFor(FeederState fs, int i, Food f) {
+        Feeder fr = fs.feeders[i];
+        double dx = f.getCenterX() - fr.getCenterX();
+        double dy = f.getCenterY() - fr.getCenterY();
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        // close enough to eat it, so it doesn't matter where it's pointing
+        if (distance <= f.getWidth() / 2) return true;
+
+        double speed = fs.speed[i];
+        double tolerance = HEADING_TOLERANCE * (1 + speed);
+        return Math.abs(fs.vx[i] - dx / distance * speed) <= tolerance &&
+               Math.abs(fs.vy[i] - dy / distance * speed) <= tolerance;
+    }
+
+    /**
+     * Gets the number of moves a feeder makes before it is close enough to
+     * eat the food it is heading for.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param f the target
+     * @return the number of moves, or NEVER if it won't get there
+     */
+    private static int getTicksToArrive(FeederState fs, int i, Food f) {
+        Feeder fr = fs.feeders[i];
+        double dx = f.getCenterX() - fr.getCenterX();
+        double dy = f.getCenterY() - fr.getCenterY();
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        double speed = fs.speed[i];
+        // the same test as moveTo()
+        double reach = Math.max(speed, f.getWidth() / 2);
+
+        if (distance <= reach) return 0;
+        if (speed <= 0) return NEVER;
+        return (int) Math.min(NEVER, Math.ceil((distance - reach) / speed));
+    }
+
+    /**
+     * Gets the number of moves until a feeder is out of bounds.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @return the number of moves (at least one), or NEVER if it won't
+     * leave
+     */
+    private int getTicksToWall(FeederState fs, int i) {
+        double ticks = NEVER;
+
+        if (fs.vx[i] > 0)
+            ticks = Math.floor((world.getMaxX() - fs.x[i]) / fs.vx[i]) + 1;
+        else if (fs.vx[i] < 0)
+            ticks = Math.floor((fs.x[i] - world.getMinX()) / -fs.vx[i]) + 1;
+
+        if (fs.vy[i] > 0)
+            ticks = Math.min(ticks,
+                    Math.floor((world.getMaxY() - fs.y[i]) / fs.vy[i]) + 1);
+        else if (fs.vy[i] < 0)
+            ticks = Math.min(ticks,
+                    Math.floor((fs.y[i] - world.getMinY()) / -fs.vy[i]) + 1);
+
+        return (int) Math.max(1, Math.min(NEVER, ticks));
+    }
+
+    /**
+     * Finds the food a feeder notices first within a number of moves, and
+     * puts it in the feeder's noticed list.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param last the most moves to look ahead
+     * @return the number of moves before the food is noticed, or NEVER if
+     * nothing is noticed in time
+     */
+    private int findFirstNotice(FeederState fs, int i, int last) {
+        Feeder fr = fs.feeders[i];
+        ArrayList<Food> list = noticed.get(i);
+        list.clear();
+
+        double chance = fr.getRecognitionChance();
+        if (chance <= 0) return NEVER;
+
+        // every food object the feeder could see from anywhere along the
+        // stretch of path
+        double reach = Math.max(fs.eyesight[i], fs.speed[i]);
+        double halfX = fs.vx[i] * last / 2;
+        double halfY = fs.vy[i] * last / 2;
+        FoodGrid grid = world.getFoodCollection().getGrid();
+        grid.getNearbyFood(fs.x[i] + halfX, fs.y[i] + halfY,
+                reach + Math.sqrt(halfX * halfX + halfY * halfY), nearby);
+
+        int first = NEVER;
+        for (int j = 0; j < nearby.size(); j++) {
+            Food f = nearby.get(j);
+            if (!f.isActive() || fr.hasObserved(f)) continue;
+
+            int ticks = sampleNotice(fs, i, f, last, chance);
+            if (ticks < first) {
+                list.clear();
+                first = ticks;
+            }
+            if (ticks == first && ticks != NEVER)
+                list.add(f);
+        }
+
+        return first;
+    }
+
+    /**
+     * Draws the number of moves before a feeder notices a food object,
+     * rolling once for each tick the food is in view, the way the perception
+     * phase does.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param f the food object
+     * @param last the most moves to look ahead
+     * @param chance the chance of noticing the food on each tick it is in
+     * view
+     * @return the number of moves, or NEVER if it isn't noticed in time
+     */
+    private int sampleNotice(FeederState fs, int i, Food f, int last,
+            double chance) {
+        int spans = findSpans(fs, i, f, last);
+        if (spans == 0) return NEVER;
+
+        // the number of rolls up to and including the first success
+        long rolls = 1;
+        if (chance < 1) {
+            double u = 1 - random.nextDouble();
+            double extra = Math.floor(Math.log(u) / Math.log(1 - chance));
+            if (extra >= NEVER) return NEVER;
+            rolls += (long) extra;
+        }
+
+        for (int s = 0; s < spans; s++) {
+            long length = spanEnd[s] - spanStart[s] + 1;
+            if (rolls <= length)
+                return (int) (spanStart[s] + rolls - 1);
+            rolls -= length;
+        }
+        return NEVER;
+    }
+
+    /**
+     * Finds the moves (from zero to last) after which a food object is in
+     * view of a feeder, as sorted, non-overlapping spans of whole moves in
+     * spanStart and spanEnd. The tests are the same as Food.isPerceived(),
+     * with the feeder's location and cone moving along its path.
+     * @param fs the feeder state
+     * @param i the feeder's index
+     * @param f the food object
+     * @param last the most moves to look ahead
+     * @return the number of spans
+     */
+    private int findSpans(FeederState fs, int i, Food f, int last) {
+        double vx = fs.vx[i];
+        double vy = fs.vy[i];
+        double fx = f.getCurrentLocation().x;
+        double fy = f.getCurrentLocation().y;
+
+        // the distance test is from the feeder's top left corner to the
+        // food's. a blind feeder has to be within a move of the food.
+        double radius = fs.eyesight[i] == 0 ? fs.speed[i] : fs.eyesight[i];
+        spanLow = 0;
+        spanHigh = last;
+        limitToCircle(fx - fs.x[i], fy - fs.y[i], vx, vy, radius);
+        if (spanLow > spanHigh) return 0;
+
+        if (fs.eyesight[i] == 0)
+            return addSpan(0, spanLow, spanHigh);
+
+        double low = spanLow;
+        double high = spanHigh;
+        double centerX = f.getCenterX();
+        double centerY = f.getCenterY();
+        double halfWidth = f.getWidth() / 2;
+        double halfHeight = f.getHeight() / 2;
+        int spans = 0;
+
+        // the center of the food, then each corner of its bounding box
+        for (int p = 0; p < 5; p++) {
+            double px = centerX;
+            double py = centerY;
+            if (p > 0) {
+                px += (p & 1) == 0 ? halfWidth : -halfWidth;
+                py += p > 2 ? halfHeight : -halfHeight;
+            }
+
+            spanLow = low;
+            spanHigh = high;
+            // the cone's edges move with the feeder, so each edge test is
+            // linear in the number of moves
+            limitToHalfPlane(fs.nax[i] * px + fs.nay[i] * py - fs.nac[i],
+                    fs.nax[i] * vx + fs.nay[i] * vy);
+            limitToHalfPlane(fs.nbx[i] * px + fs.nby[i] * py - fs.nbc[i],
+                    fs.nbx[i] * vx + fs.nby[i] * vy);
+            if (spanLow <= spanHigh)
+                spans = addSpan(spans, spanLow, spanHigh);
+        }
+
+        return spans;
+    }
+
+    /**
+     * Narrows the current span to the moves after which a point is within a
+     * distance of the feeder.
+     * @param dx the point's x offset from the feeder now
+     * @param dy the point's y offset from the feeder now
+     * @param vx the feeder's x movement per tick
+     * @param vy the feeder's y movement per tick
+     * @param radius the distance
+     */
+    private void limitToCircle(double dx, double dy, double vx, double vy,
+            double radius) {
+        // |d - k * v|^2 <= radius^2 is a quadratic in k
+        double a = vx * vx + vy * vy;
+        double b = dx * vx + dy * vy;
+        double c = dx * dx + dy * dy - radius * radius;
+
+        if (a == 0) {
+            if (c > 0) spanHigh = -1;
+            return;
+        }
+
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            spanHigh = -1;
+            return;
+        }
+
+        double root = Math.sqrt(discriminant);
+        spanLow = Math.max(spanLow, (b - root) / a);
+        spanHigh = Math.min(spanHigh, (b + root) / a);
+    }
+
+    /**
+     * Narrows the current span to the moves for which offset - k * rate is
+     * not negative.
+     * @param offset the value of the test now
+     * @param rate how much the test drops with each move
+     */
+    private void limitToHalfPlane(double offset, double rate) {
+        if (rate == 0) {
+            if (offset < 0) spanHigh = -1;
+        } else if (rate > 0) {
+            spanHigh = Math.min(spanHigh, offset / rate);
+        } else {
+            spanLow = Math.max(spanLow, offset / rate);
+        }
+    }
+
+    /**
+     * Adds a continuous span to the whole-move spans, merging it with any it
+     * overlaps.
+     * @param spans the number of spans so far
+     * @param low the start of the span
+     * @param high the end of the span
+     * @return the new number of spans
+     */
+    private int addSpan(int spans, double low, double high) {
+        int start = (int) Math.ceil(low - EPSILON);
+        int end = (int) Math.floor(high + EPSILON);
+        if (start > end) return spans;
+
+        // insert in order of start, then merge neighbours that touch
+        int at = spans;
+        while (at > 0 && spanStart[at - 1] > start) {
+            spanStart[at] = spanStart[at - 1];
+            spanEnd[at] = spanEnd[at - 1];
+            at--;
+        }
+        spanStart[at] = start;
+        spanEnd[at] = end;
+        spans++;
+
+        int merged = 0;
+        for (int s = 1; s < spans; s++) {
+            if (spanStart[s] <= spanEnd[merged] + 1) {
+                spanEnd[merged] = Math.max(spanEnd[merged], spanEnd[s]);
+            } else {
+                merged++;
+                spanStart[merged] = spanStart[s];
+                spanEnd[merged] = spanEnd[s];
+            }
+        }
+        return merged + 1;
+    }
+
+    /**
+     * Adds an event to the heap.
+     * @param tick the tick of the event
+     * @param i the feeder's index
+     */
+    private void push(int tick, int i) {
+        if (heapSize == heap.length)
+            heap = Arrays.copyOf(heap, heapSize * 2);
+
+        long key = ((long) tick << 32) | i;
+        int child = heapSize++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = key;
+    }
+
+    /**
+     * Removes the earliest event from the heap.
+     */
+    private void pop() {
+        long key = heap[--heapSize];
+        int parent = 0;
+        int half = heapSize >>> 1;
+        while (parent < half) {
+            int child = 2 * parent + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child])
+                child++;
+            if (key <= heap[child]) break;
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        if (heapSize > 0)
+            heap[parent] = key;
+    }
+}
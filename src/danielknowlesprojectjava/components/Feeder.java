@@ -1,28 +1,24 @@
 package danielknowlesprojectjava.components;
 
-import java.awt.*;
-import java.awt.geom.*;
-import java.awt.geom.Point2D.*;
-import java.util.ArrayList;
-import javax.swing.*;
+import danielknowlesprojectjava.collections.FoodObservers;
+import danielknowlesprojectjava.collections.FoodSet;
+import danielknowlesprojectjava.geneticAlgorithm.Genome;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
 
 /**
  * The feeder object that will be searching the environment and eating food.
+ * Feeders are plain data objects; FeederRenderer draws them. The values that
+ * change every tick (location, movement vector, effective traits and food
+ * eaten) are kept in a shared FeederState at the feeder's index.
  */
-public class Feeder extends JComponent {
-    // render flags for attributes
-    private static boolean displayFov = true;
-    private static boolean displayID = true;
-    private static boolean displayFoodEaten = true;// direction in radians
+public class Feeder {
+    // direction in radians
     private double direction = 0.0;
     // raw trait values (used for evaluation)
     private int eyesight = 0;
     private int intelligence = 0;
     private int speed = 0;
-    // effective trait values (used for environment interactions)
-    private double effectiveEyesight = 0.0;
-    private double effectiveIntelligence = 0.0;
-    private double effectiveSpeed = 0.0;
     // max values
     public static final int MAXEYESIGHT = 15;
     public static final int MAXINTELLIGENCE = 15;
@@ -34,96 +30,141 @@ public class Feeder extends JComponent {
     // component values
     private double width = 5;
     private double height = 5;
-    // feeder's movement vector (initilize to (0,0))
-    private Point2D.Double movementVector = new Point2D.Double();
-    // feeder count and ID are used to identify feeders in the UI
-    private static int feederCount = 0;
+    // the ID is used to identify feeders in the UI
     private int feederID;
-    // the feeder's current location
-    private Point2D.Double currentLocation = new Point2D.Double();
-    // perception points that define the field of vision
-    private Point2D perPoint1;
-    private Point2D perPoint2;
-    // the number of food objects eaten
-    private int foodEaten = 0;
-    // list of food that has been observed by the feeder
-    private ArrayList<Food> observedFood = new ArrayList<Food>();
+    // the world the feeder lives in
+    private final World world;
+    // holds the feeder's location, movement vector, effective traits and
+    // food eaten
+    private final FeederState state;
+    // the feeder's index in the state
+    private int index;
+    // the ratio between the length of the sides of the perception triangle
+    // and how far the feeder can see
+    private static final double SIDE_RATIO =
+            Math.sin(Math.toDegrees(60)) / Math.sin(Math.toDegrees(30));
+    // set of food that has been observed by the feeder
+    private final FoodSet observedFood = new FoodSet();
+    // the closest food in the observed set, or null if it has to be found
+    // again. while the feeder walks straight at it, no other observed food
+    // can get closer, so it only changes when food is added or taken away.
+    private Food target;
+    // food added to the observed set that the food collection's observer
+    // index doesn't know about yet. feeders observe food on several threads
+    // at once, so the world passes these on after the phase. the count is
+    // kept in the feeder state.
+    private Food[] unregistered = new Food[4];
+    // observed food the feeder decided wasn't food while steering. it is
+    // dropped when the claims are resolved, one at a time, so the observer
+    // index can be told as well.
+    private Food rejected;
+    // the feeder's own random number generator. feeders are updated on
+    // several threads at once, so each one draws from its own sequence to
+    // keep seeded runs repeatable.
+    private final RandomStream random;
 
     /**
      * Creates a new feeder.
-     */
-    public Feeder() {
+     * @param world the world the feeder lives in
+     */
+    public Feeder(World world) {
+        this.world = world;
+        state = world.getFeederCollection().getState();
+        random = new RandomStream();
+        world.getRandomService().reseed(random);
+        index = state.add(this);
         // set the feeder's uid
         setFeederUid();
         // set a random location for the feeder
         setRandomLocation();
+        calcPerceptionPoints();
     }
 
     /**
      * Creates a new feeder.
-     * @param chromosome the feeder's chromosome array
-     */
-    public Feeder(boolean[] chromosome) {
-        // split the chromosome into thirds (one third for each trait).
-        int traitLength = chromosome.length;
-        traitLength /= 3;
-        // set the feeder traits value by "decoding" the chromosome array.
-        // this will be done by creating three binary strings corresponding to
-        // the three parts of the chromosome array. then, the base 10
-        // representation will be the actual trait value.
-        int indexCount = 0;
-
-        // set speed
-        String binSpeed = "";
-        for (int i = 0; i < traitLength; i++) {
-            if (chromosome[indexCount]) binSpeed += "1";
-            else binSpeed += "0";
-            indexCount++;
-        }
-        speed = Integer.parseInt(binSpeed, 2);
-        effectiveSpeed = speed * speedModifier;
-
-        // set eyesight
-        String binEyesight = "";
-        for (int i = 0; i < traitLength; i++) {
-            if (chromosome[indexCount]) binEyesight += "1";
-            else binEyesight += "0";
-            indexCount++;
-        }
-        eyesight = Integer.parseInt(binEyesight, 2);
-        effectiveEyesight = eyesight * eyesightModifier;
-        
-        // set intelligence
-        String binIntelligence = "";
-        for (int i = 0; i < traitLength; i++) {
-            if (chromosome[indexCount]) binIntelligence += "1";
-            else binIntelligence += "0";
-            indexCount++;
-        }
-        intelligence = Integer.parseInt(binIntelligence, 2);
-        effectiveIntelligence = intelligence * intelligenceModifier;
+     * @param world the world the feeder lives in
+     * @param chromosome the feeder's chromosome
+     */
+    public Feeder(World world, Genome chromosome) {
+        this.world = world;
+        state = world.getFeederCollection().getState();
+        random = new RandomStream();
+        world.getRandomService().reseed(random);
+        index = state.add(this);
+        setChromosome(chromosome);
 
         setFeederUid();
         setRandomLocation();
         setRandomMovementVector();
+        calcPerceptionPoints();
+    }
+
+    /**
+     * Puts a feeder that has been cleared out of its world back in with a
+     * new chromosome, leaving it just as a new feeder made from that
+     * chromosome would be. This lets the feeder collection reuse the
+     * feeders of one generation for the next.
+     * @param chromosome the feeder's new chromosome
+     */
+    public void reuse(Genome chromosome) {
+        world.getRandomService().reseed(random);
+        index = state.add(this);
+        observedFood.clear();
+        target = null;
+        rejected = null;
+        Arrays.fill(unregistered, null);
+        setChromosome(chromosome);
+
+        setFeederUid();
+        setRandomLocation();
+        setRandomMovementVector();
+        calcPerceptionPoints();
+    }
+
+    /**
+     * Sets the feeder's traits by decoding a chromosome.
+     * @param chromosome the feeder's chromosome
+     */
+    private void setChromosome(Genome chromosome) {
+        // split the chromosome into thirds (one third for each trait). each
+        // third is read as a binary number, most significant bit first, and
+        // that number is the trait value.
+        int traitLength = chromosome.length() / 3;
+
+        speed = (int) chromosome.getBits(0, traitLength);
+        state.speed[index] = speed * speedModifier;
+
+        eyesight = (int) chromosome.getBits(traitLength, traitLength);
+        state.eyesight[index] = eyesight * eyesightModifier;
+
+        intelligence = (int) chromosome.getBits(traitLength * 2, traitLength);
+        state.intelligence[index] = intelligence * intelligenceModifier;
     }
 
     /**
      * Creates a new feeder.
+     * @param world the world the feeder lives in
      * @param speed the feeder's speed
      * @param eyesight the feeder's eyesight strength
      * @param intelligence the feeder's intelligence level
      */
-    public Feeder(int speed, int eyesight, int intelligence) {
+    public Feeder(World world, int speed, int eyesight,
+            int intelligence) {
+        this.world = world;
+        state = world.getFeederCollection().getState();
+        random = new RandomStream();
+        world.getRandomService().reseed(random);
+        index = state.add(this);
        // set the feeder's uid
         setFeederUid();
         this.speed = speed;
-        effectiveSpeed = speed * speedModifier;
+        state.speed[index] = speed * speedModifier;
         this.eyesight = eyesight;
-        effectiveEyesight = eyesight * eyesightModifier;
+        state.eyesight[index] = eyesight * eyesightModifier;
         this.intelligence = intelligence;
-        effectiveIntelligence = intelligence * intelligenceModifier;
+        state.intelligence[index] = intelligence * intelligenceModifier;
         setRandomMovementVector();
+        calcPerceptionPoints();
     }
 
     /**
@@ -131,9 +172,8 @@ public class Feeder extends JComponent {
      * environment.
      */
     private void setRandomLocation() {
-        currentLocation = new Point2D.Double(
-                (double) (Math.random() * Environment.getMaxX()),
-                (double) (Math.random() * Environment.getMaxY()));
+        state.x[index] = random.nextDouble() * world.getMaxX();
+        state.y[index] = random.nextDouble() * world.getMaxY();
     }
 
     /**
@@ -141,21 +181,22 @@ public class Feeder extends JComponent {
      */
     private void setFeederUid() {
         // increment feeder count and set feeder ID
-        feederID = ++feederCount;
+        feederID = world.nextFeederID();
     }
 
     /**
      * Creates a feeder with random genetic trait values.
+     * @param world the world the feeder lives in
      * @return a random feeder
      */
-    public static Feeder getRandomFeeder() {
+    public static Feeder getRandomFeeder(World world) {
         // create random trait values
-        int s = Environment.rnd.nextInt(MAXSPEED + 1);
-        int e = Environment.rnd.nextInt(MAXEYESIGHT + 1);
-        int i = Environment.rnd.nextInt(MAXINTELLIGENCE + 1);
+        int s = world.getRandom().nextInt(MAXSPEED + 1);
+        int e = world.getRandom().nextInt(MAXEYESIGHT + 1);
+        int i = world.getRandom().nextInt(MAXINTELLIGENCE + 1);
 
         // return a new feeder using the previous traits
-        return new Feeder(s, e, i);
+        return new Feeder(world, s, e, i);
     }
 
     /**
@@ -163,7 +204,7 @@ public class Feeder extends JComponent {
      */
     private void setRandomMovementVector() {
         // set direction to random number
-        direction = (Math.random() * 360) * (Math.PI / 180);
+        direction = (random.nextDouble() * 360) * (Math.PI / 180);
         // convert to radians
         //direction *= (Math.PI / 180);
         // set movement vector to the direction * speed
@@ -175,8 +216,8 @@ public class Feeder extends JComponent {
      */
     private void setMovementVector() {
         // set movement vector to the direction * speed
-        movementVector = new Point2D.Double(Math.cos(direction) * effectiveSpeed,
-                                            Math.sin(direction) * effectiveSpeed); 
+        state.vx[index] = Math.cos(direction) * state.speed[index];
+        state.vy[index] = Math.sin(direction) * state.speed[index];
     }
 
     /**
@@ -184,7 +225,7 @@ public class Feeder extends JComponent {
      * @return the feeder's effective speed
      */
     public double getEffectiveSpeed() {
-        return effectiveSpeed;
+        return state.speed[index];
     }
 
     /**
@@ -224,7 +265,7 @@ public class Feeder extends JComponent {
                 break;
             case ONE_OR_FOUR:   // in quad one or four
                 // determine which quad to use
-                double decision = Math.random() * 2;
+                double decision = random.nextDouble() * 2;
                 if (decision <= 1)  // quad one
                     setRandomDirection(0.1, 89.9);
                 else                // quad four
@@ -248,227 +289,160 @@ public class Feeder extends JComponent {
      * @param maxTheta the maximum valud for the angle (in dgrees)
      */
     private void setRandomDirection(double minTheta, double maxTheta) {
-        double degrees = Math.random() * maxTheta + minTheta;
+        double degrees = random.nextDouble() * maxTheta + minTheta;
         direction = degrees * (Math.PI / 180);
     }
 
     /**
-     * Determines if the feeder's field of vision is displayed.
-     * @return true if vision is displayed, false if not
+     * Gets the center of the feeder's graphical display.
+     * @return the center of the feeder's graphical display
      */
-    public static boolean isVisionDisplayed() { return displayFov; }
+    public Point2D getCenter()
+    {
+        return new Point2D.Double(getCenterX(), getCenterY());
+    }
 
     /**
-     * Shows all feeder fields of vision.
-     */
-    public static void hideFieldOfVision() { displayFov = false; }
-    
-    /**
-     * Hides all feeder fields of vision.
+     * Gets the x coordinate of the center of the feeder.
+     * @return the center's x coordinate
      */
-    public static void showFieldOfVision() { displayFov = true; }
+    public double getCenterX() { return state.x[index] + width / 2; }
 
     /**
-     * Renders the feeder in the environment.
-     * @param g the graphics context that draws the feeder
+     * Gets the y coordinate of the center of the feeder.
+     * @return the center's y coordinate
      */
-    @Override
-    public void paintComponent(Graphics g) {
-        String additionalInfo = "";
-        if (displayID)
-            additionalInfo += String.valueOf(feederID);
-
-        if (displayFoodEaten) {
-            if (displayID)
-                additionalInfo += " : ";
-            additionalInfo += String.valueOf(foodEaten);
-        }
-
-        Graphics2D g2 = (Graphics2D) g;
-
-        g2.setColor(Color.WHITE);
-        Ellipse2D e = new Ellipse2D.Double(
-            currentLocation.getX(), currentLocation.getY(), width, height);
-        g2.fill(e);
-
-        g2.setColor(Color.BLACK);
-        g2.drawString(additionalInfo, (float) getCenter().getX(),
-                     (float) getCenter().getY());
-
-        g2.draw(e);
-
-        calcPerceptionPoints();
-
-        if (displayFov)
-            drawLineOfSight(g2);
-    }
+    public double getCenterY() { return state.y[index] + height / 2; }
 
     /**
-     * Gets the center of the feeder's graphical display.
-     * @return the center of the feeder's graphical display
+     * Gets the feeder's unique ID.
+     * @return the feeder's ID
      */
-    public Point2D getCenter()
-    {
-        double centerX = currentLocation.getX() + (double) (width / 2);
-        double centerY = currentLocation.getY() + (double) (height / 2);
-
-        return new Point2D.Double(centerX, centerY);
-    }
+    public int getFeederID() { return feederID; }
 
     /**
-     * Gets the feeder's first line of sight perception point.
-     * @return the feeder's first line of sight perception point
+     * Gets the number of food objects the feeder has eaten.
+     * @return the number of food objects eaten
      */
-    public Point2D getPerPoint1() { return perPoint1; }
+    public int getFoodEaten() { return state.foodEaten[index]; }
 
     /**
-     * Gets the feeder's second line of sight perception point.
-     * @return the feeder's second line of sight perception point
+     * Gets the width of the feeder.
+     * @return the width of the feeder
      */
-    public Point2D getPerPoint2() { return perPoint2; }
+    public double getWidth() { return width; }
 
     /**
-     * Sets the feeder count to zero
+     * Gets the height of the feeder.
+     * @return the height of the feeder
      */
-    public static void resetFeederCount() { feederCount = 0; }
+    public double getHeight() { return height; }
 
     /**
-     * Decrements the feeder count by one.
+     * Gets the x coordinate of the feeder's first line of sight perception
+     * point.
+     * @return the first perception point's x coordinate
      */
-    public static void decrementPersonNumber() { feederCount--; }
+    public double getPerPoint1X() { return state.p1x[index]; }
 
     /**
-     * Set the values for the points that define the feeder's line of sight.
+     * Gets the y coordinate of the feeder's first line of sight perception
+     * point.
+     * @return the first perception point's y coordinate
      */
-    private void calcPerceptionPoints() {
-        double centerX = getCenter().getX();
-        double centerY = getCenter().getY();
-
-        // Get the mid-point of the farthest line of the perception triangle
-        Point2D.Double endPoint = getEndPoint(
-            new Point2D.Double(centerX, centerY),
-            movementVector, effectiveEyesight);
-
-        // Get the top point of the perception triangle
-        // First, we need to modify the slope based on the quadrant the person is looking at
-        Point2D[] newSlopes = getNewSlopes();
-        double distance2 = (effectiveEyesight * Math.sin(Math.toDegrees(60))) /
-                Math.sin(Math.toDegrees(30));
-        perPoint1 = getEndPoint(endPoint, newSlopes[0], distance2);
-        perPoint2 = getEndPoint(endPoint, newSlopes[1], distance2);
-    }
+    public double getPerPoint1Y() { return state.p1y[index]; }
 
     /**
-     * Displays the person's line of sight as a triangle. It should be noted
-     * that the person will not be able to see things at the outer angles of
-     * the triangle. The line of sight is limited by the person's sight distance.
-     * You should view the outer angles and edge more like an arc.
-     * @param g2 the graphics context
+     * Gets the x coordinate of the feeder's second line of sight perception
+     * point.
+     * @return the second perception point's x coordinate
      */
-    private void drawLineOfSight(Graphics2D g2)
-    {
-        double centerX = getCenter().getX();
-        double centerY = getCenter().getY();
-        g2.setColor(Color.LIGHT_GRAY);
-
-        g2.drawLine((int) Math.round(centerX),
-                    (int) Math.round(centerY),
-                    (int) Math.round(perPoint1.getX()),
-                    (int) Math.round(perPoint1.getY()));
-
-        // Get the bottom point of the perception triangle
-        g2.drawLine((int) Math.round(centerX),
-                    (int) Math.round(centerY),
-                    (int) Math.round(perPoint2.getX()),
-                    (int) Math.round(perPoint2.getY()));
-
-        g2.drawLine((int) Math.round(perPoint1.getX()),
-                    (int) Math.round(perPoint1.getY()),
-                    (int) Math.round(perPoint2.getX()),
-                    (int) Math.round(perPoint2.getY()));
-
-        g2.setColor(Color.BLACK);
-    }
+    public double getPerPoint2X() { return state.p2x[index]; }
 
     /**
-     * Helper method that gets an array of two slopes used to build the line
-     * of sight triangle.
-     * @return the slopes of the side edges of the line of sight triangle
+     * Gets the y coordinate of the feeder's second line of sight perception
+     * point.
+     * @return the second perception point's y coordinate
      */
-    private Point2D[] getNewSlopes()
-    {
-        double mX = movementVector.getX();
-        double mY = movementVector.getY();
-        Point2D[] newSlopes = new Point2D.Double[2];
-
-        newSlopes[0] = movementVector;
-        newSlopes[1] = movementVector;
-
-        if (mX < 0 && mY != 0)
-        {
-            // Looking to the top left or bottom left
-            newSlopes[0] = new Point2D.Double(mY, mX * -1);
-            newSlopes[1] = new Point2D.Double(mY * -1, mX);
-        }
-        else if (mX > 0 && mY != 0)
-        {
-            // Looking to the top right or bottom right
-            newSlopes[0] = new Point2D.Double(mY, mX * -1);
-            newSlopes[1] = new Point2D.Double(mY * -1, mX);
-        }
-        else if (mX == 0 && mY != 0)
-        {
-            // Looking directly up or down
-            newSlopes[0] = new Point2D.Double(mY, mX);
-            newSlopes[1] = new Point2D.Double(mY * -1, mX);
-        }
-        else if (mY == 0 && mX != 0)
-        {
-            // Looking left or right
-            newSlopes[0] = new Point2D.Double(mY, mX);
-            newSlopes[1] = new Point2D.Double(mY, mX * -1);
-        }
-
-        return newSlopes;
-    }
+    public double getPerPoint2Y() { return state.p2y[index]; }
 
     /**
-     * Finds the point on a line that is a specified distance away from another
-     * point.
-     * @param startPoint the starting point
-     * @param slope the slope of the line (in other words the direction the
-     * other point is in)
-     * @param distance the distance the end point is from the start point
-     * @return the end point (the point that is the specified distance away
-     * from the starting point and in the direction of the slope)
-     */
-    private Point2D.Double getEndPoint(Point2D startPoint,
-                                        Point2D slope,
-                                        double distance)
-    {
+     * Set the values for the points that define the feeder's line of sight,
+     * along with the edge normals used to test whether a point is inside
+     * it. The world calls this once per tick, after the feeder has moved, so
+     * the next tick's perception checks don't have to recompute anything.
+     */
+    void calcPerceptionPoints() {
+        double centerX = getCenterX();
+        double centerY = getCenterY();
+        double eyesight = state.eyesight[index];
+        double mX = state.vx[index];
+        double mY = state.vy[index];
 
-        double slopeLength = Math.sqrt((slope.getX() * slope.getX()) +
-                                (slope.getY() * slope.getY()));
-        if (slopeLength == 0)
-            slopeLength = 1;
-        Point2D.Double newSlope =
-            new Point2D.Double((slope.getX() / slopeLength) * distance,
-                                (slope.getY() / slopeLength) * distance);
-        Point2D.Double endPoint =
-            new Point2D.Double(newSlope.getX() + startPoint.getX(),
-                                newSlope.getY() + startPoint.getY());
+        // the length of the movement vector, used to turn it into a unit
+        // vector. a feeder that isn't moving doesn't look anywhere.
+        double mvLength = Math.sqrt(mX * mX + mY * mY);
+        if (mvLength == 0)
+            mvLength = 1;
+        double unitX = mX / mvLength;
+        double unitY = mY / mvLength;
 
-        return endPoint;
+        // Get the mid-point of the farthest line of the perception triangle
+        double endX = unitX * eyesight + centerX;
+        double endY = unitY * eyesight + centerY;
+
+        // The other two points of the triangle are found by going out from
+        // the mid-point in both directions at right angles to the movement
+        // vector.
+        double distance2 = eyesight * SIDE_RATIO;
+        state.p1x[index] = unitY * distance2 + endX;
+        state.p1y[index] = -unitX * distance2 + endY;
+        state.p2x[index] = -unitY * distance2 + endX;
+        state.p2y[index] = unitX * distance2 + endY;
+
+        // The cone of perception is the wedge between the rays from the
+        // center through each perception point. For each ray, take the
+        // normal that points towards the other ray. A point is on the
+        // inside of that edge when the dot product of the normal and the
+        // point (relative to the center) isn't negative. Storing the dot
+        // product of the normal and the center as an offset turns each
+        // edge test into two multiplies and an add.
+        double apx = state.p1x[index] - centerX;
+        double apy = state.p1y[index] - centerY;
+        double bpx = state.p2x[index] - centerX;
+        double bpy = state.p2y[index] - centerY;
+        double side = Math.signum(apx * bpy - apy * bpx);
+
+        state.nax[index] = -apy * side;
+        state.nay[index] = apx * side;
+        state.nac[index] = state.nax[index] * centerX +
+                           state.nay[index] * centerY;
+        // the b edge sees the a ray on the opposite side
+        state.nbx[index] = bpy * side;
+        state.nby[index] = -bpx * side;
+        state.nbc[index] = state.nbx[index] * centerX +
+                           state.nby[index] * centerY;
+    }
+
+    /**
+     * Checks to see if a point is in the feeder's cone of perception. This
+     * uses the edge normals set by calcPerceptionPoints().
+     * @param x the x coordinate of the point to check
+     * @param y the y coordinate of the point to check
+     * @return true if the point is in the feeder's FOV, false if it is not
+     */
+    public boolean isInConeOfPerception(double x, double y) {
+        return state.nax[index] * x + state.nay[index] * y >= state.nac[index] &&
+               state.nbx[index] * x + state.nby[index] * y >= state.nbc[index];
     }
 
-
     /**
      * Gets the raw fitness score for the feeder.
      * @param chromosome the chromosome array for the genotype
      * @return the raw fitness score for the feeder
      */
     public double GetFitness() {
-        return foodEaten; // * 1.25;// + 1;
+        return state.foodEaten[index]; // * 1.25;// + 1;
     }
 
     /**
@@ -479,38 +453,33 @@ public class Feeder extends JComponent {
         // make sure the target is active
         if (target.isActive())
         {
-            // first get the distance to the target
-            double distance = getCenter().distance(target.getCenter());
+            // first get the slope of the line between the feeder and the
+            // target, and the distance to the target
+            double mX = target.getCenterX() - getCenterX();
+            double mY = target.getCenterY() - getCenterY();
+            double distance = Math.sqrt(mX * mX + mY * mY);
             // also get the length of the feeder's movement vector
             double mvLength = Math.sqrt(
-                    movementVector.x * movementVector.x +
-                    movementVector.y * movementVector.y);
+                    state.vx[index] * state.vx[index] +
+                    state.vy[index] * state.vy[index]);
             // if the distance is zero
             if (distance <= mvLength || distance <= target.getWidth() / 2) {
                 // check to see if the feeder thinks the target is food
                 if (isFood(target)) {
-                    // if it thinks its food, eat it
-                    eat(target);
+                    // if it thinks its food, try to eat it. other feeders may
+                    // reach the same food this tick, so the world decides
+                    // who gets it once every feeder has steered.
+                    state.claimed[index] = target;
                 } else {
-                    // otherwise, just remove it from observed
-                    removeFromObserved(target);
+                    // otherwise, drop it from observed once the claims are
+                    // resolved
+                    rejected = target;
                 }
             } else { // if distance is not zero, set movement vector
-                // first, get the slope of the line between the feeder and the target
-                Point2D.Double m = new Point2D.Double(
-                        target.getCenter().x - getCenter().getX(),
-                        target.getCenter().y - getCenter().getY());
-                // then, normalize the slope
-                // 1. get length
-                double mLength = Math.sqrt(m.x * m.x + m.y * m.y);
-                // 2. get new points by dividing by length
-                m.x = m.x / mLength;
-                m.y = m.y / mLength;
-
-                // now, set new direction
-                movementVector.x = m.x * effectiveSpeed;
-                movementVector.y = m.y * effectiveSpeed;
-                //setMovementVector();
+                // normalize the slope by dividing by its length (the
+                // distance), then set the new direction
+                state.vx[index] = (mX / distance) * state.speed[index];
+                state.vy[index] = (mY / distance) * state.speed[index];
             }
         }
     }
@@ -530,7 +499,7 @@ public class Feeder extends JComponent {
         double intelRoll =  intelligenceRoll();// * distance;
 
         // see if intelligence is greater than the roll
-        if (effectiveIntelligence > intelRoll) return true;
+        if (state.intelligence[index] > intelRoll) return true;
         else return false;
     }
 
@@ -540,9 +509,33 @@ public class Feeder extends JComponent {
      */
     private void eat(Food f) {
         // increment food eaten value
-        foodEaten++;
+        state.foodEaten[index]++;
         // remove the food object from the environment
-        f.markAsEaten();
+        world.getFoodCollection().removeFood(f);
+        removeFromObserved(f);
+    }
+
+    /**
+     * Eats the food the feeder claimed while steering, if it is still there.
+     * When several feeders claim the same food in one tick, the world
+     * resolves the claims in index order, so the feeder with the lowest
+     * index gets it and the rest drop it. Food the feeder rejected while
+     * steering is dropped here too.
+     */
+    void resolveClaim() {
+        if (rejected != null) {
+            removeFromObserved(rejected);
+            rejected = null;
+        }
+
+        Food target = state.claimed[index];
+        if (target == null) return;
+
+        state.claimed[index] = null;
+        if (target.isActive())
+            eat(target);
+        else
+            removeFromObserved(target);
     }
 
     /**
@@ -553,86 +546,165 @@ public class Feeder extends JComponent {
         // if intelligent enough, investigate the food
         if (isFood(fd)) {
             // add the food to the observed list
-            observedFood.add(fd);
+            observe(fd);
             // moveTo(fd);
         }
     }
 
     /**
-     * Gets the closest food in the observed food list.
+     * Adds a food object to the observed set without checking the feeder's
+     * intelligence, keeping track of which observed food is closest. The
+     * event scheduler calls this directly when it has already decided on
+     * which tick the feeder notices the food.
+     * @param fd the food object the feeder has noticed
+     */
+    void observe(Food fd) {
+        if (!observedFood.add(fd)) return;
+
+        int count = state.unregistered[index];
+        if (count == unregistered.length)
+            unregistered = Arrays.copyOf(unregistered, count * 2);
+        unregistered[count] = fd;
+        state.unregistered[index] = count + 1;
+
+        if (target != null &&
+                distanceSq(getCenterX(), getCenterY(), fd) <
+                distanceSq(getCenterX(), getCenterY(), target))
+            target = fd;
+    }
+
+    /**
+     * Tells the food collection's observer index about the food this feeder
+     * has observed since the last call, so that the feeder hears when any
+     * of it is eaten. Call this before anything is eaten.
+     */
+    void registerObserved() {
+        FoodObservers observers = world.getFoodCollection().getObservers();
+        int count = state.unregistered[index];
+        for (int i = 0; i < count; i++) {
+            observers.add(unregistered[i], this);
+            unregistered[i] = null;
+        }
+        state.unregistered[index] = 0;
+    }
+
+    /**
+     * Gets the closest food in the observed food set. Eaten food is taken
+     * out of the set as soon as it is eaten, so everything in it is active.
+     * @return the closest food, or null if there isn't any
      */
     private Food getClosestObserved() {
-        int closest = 0;    // keep track of closest food's index
-        // and the distance to the closest food object
-        double closestDistance = getCenter().distance(
-                observedFood.get(closest).getCenter());
+        double centerX = getCenterX();
+        double centerY = getCenterY();
+        Food closest = null;    // keep track of closest food
+        // and the (squared) distance to the closest food object. comparing
+        // squared distances picks the same food without the square roots.
+        double closestDistance = Double.MAX_VALUE;
+
+        for (int slot = 0; slot < observedFood.getCapacity(); slot++) {
+            Food f = observedFood.get(slot);
+            if (f == null) continue;
 
-        // check the rest of the list
-        for (int i = 1; i < observedFood.size(); i++) {
             // get the distance to this food object
-            double distance = getCenter().distance(
-                    observedFood.get(i).getCenter());
+            double distance = distanceSq(centerX, centerY, f);
             // if it's closer than the closest, make it the closest
             if (distance < closestDistance) {
-                closest = i;
+                closest = f;
                 closestDistance = distance;
             }
         }
 
-        return observedFood.get(closest);
+        return closest;
+    }
+
+    /**
+     * Gets the closest food in the observed food set, only searching the
+     * set when the food it found last time is gone.
+     * @return the closest food, or null if there isn't any
+     */
+    Food getTarget() {
+        if (observedFood.size() == 0) return null;
+
+        if (target == null)
+            target = getClosestObserved();
+        return target;
     }
 
     /**
-     * Updates the feeder.
+     * Gets the squared distance between a point and the center of a food
+     * object.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param f the food object
+     * @return the squared distance
+     */
+    private static double distanceSq(double x, double y, Food f) {
+        double dx = f.getCenterX() - x;
+        double dy = f.getCenterY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Updates the feeder on its own. The world updates all of its feeders at
+     * once by calling steer() for each one, then resolveClaim() for each one,
+     * moving them all through the feeder state and then calling
+     * adjustLocation() for each one.
      */
     public void update() {
-        // check the observed foods list first. if it isn't empty, make sure
-        // the feeder is moving towards the closest food object.
-        if (observedFood.size() > 0) {
-            for (int i = 0; i < observedFood.size(); i++) {
-                if (observedFood.get(i).isActive()) {
-                    moveTo(getClosestObserved());
-                    break;
-                }
-            }
-        }
+        steer();
+        resolveClaim();
 
         // move the feeder along its movement vector
-        currentLocation.x += movementVector.x;
-        currentLocation.y += movementVector.y;
+        state.x[index] += state.vx[index];
+        state.y[index] += state.vy[index];
         // adjust location to make sure the feeder is still in bounds
         adjustLocation();
     }
 
+    /**
+     * Points the feeder at the closest observed food object, eating it if
+     * the feeder is close enough.
+     */
+    void steer() {
+        // check the observed foods list first. if it isn't empty, make sure
+        // the feeder is moving towards the closest food object.
+        Food closest = getTarget();
+        if (closest != null)
+            moveTo(closest);
+    }
+
     /**
      * Adjusts the current location to make sure the feeder stays in bounds.
      */
-    private void adjustLocation() {
-        double newX = currentLocation.x;
-        double newY = currentLocation.y;
+    void adjustLocation() {
+        double newX = state.x[index];
+        double newY = state.y[index];
 
-        if (newX < Environment.getMinX() || newX > Environment.getMaxX() ||
-            newY < Environment.getMinY() || newY > Environment.getMaxY())
+        if (newX < world.getMinX() || newX > world.getMaxX() ||
+            newY < world.getMinY() || newY > world.getMaxY())
         {
             // flags that determine whether or not a coordinate was adjusted
             // setRandomMovementVector();
             
-            if (newX < Environment.getMinX()) {
-                newX = Environment.getMinX();
+            if (newX < world.getMinX()) {
+                newX = world.getMinX();
             }
-            else if (newX > Environment.getMaxX()) {
-                newX = Environment.getMaxX();
+            else if (newX > world.getMaxX()) {
+                newX = world.getMaxX();
             }
 
-            if (newY < Environment.getMinY()) {
-                newY = Environment.getMinY();
+            if (newY < world.getMinY()) {
+                newY = world.getMinY();
             }
-            else if (newY > Environment.getMaxY()) {
-                newY = Environment.getMaxY(); 
+            else if (newY > world.getMaxY()) {
+                newY = world.getMaxY(); 
             }
 
             // adjust the direction and movment vector
             adjustDirection();
+            // being pushed back in bounds can bring other food closer than
+            // the target
+            target = null;
             
             // set the new location and we're done.
             setNewLocation(newX, newY);
@@ -649,12 +721,12 @@ public class Feeder extends JComponent {
          // set a random movement vector based on where the feeder is.
         // will determine the quadrant to point vector to (relative to the
         // feeder's current location).
-        if (currentLocation.x < Environment.getMinX()) { // on left edge
-            if (currentLocation.y < Environment.getMinY()) { // on top left corner
+        if (state.x[index] < world.getMinX()) { // on left edge
+            if (state.y[index] < world.getMinY()) { // on top left corner
                 // set to random vector pointed at fourth quadrant
                 setRandomMovementVector(QUADRANT.FOUR);
             }
-            else if (currentLocation.y > Environment.getMaxY()) { // on bottom left corner
+            else if (state.y[index] > world.getMaxY()) { // on bottom left corner
                 // set to first quadrant
                 setRandomMovementVector(QUADRANT.ONE);
             }
@@ -663,12 +735,12 @@ public class Feeder extends JComponent {
                 setRandomMovementVector(QUADRANT.ONE_OR_FOUR);
             }
         }
-        else if (currentLocation.x > Environment.getMaxX()) {   // on right edge
-            if (currentLocation.y < Environment.getMinY()) { // on top right corner
+        else if (state.x[index] > world.getMaxX()) {   // on right edge
+            if (state.y[index] < world.getMinY()) { // on top right corner
                 // set to random vector pointed at third quadrant
                 setRandomMovementVector(QUADRANT.THREE);
             }
-            else if (currentLocation.y > Environment.getMaxY()) { // on bottom right corner
+            else if (state.y[index] > world.getMaxY()) { // on bottom right corner
                 // set to second quadrant
                 setRandomMovementVector(QUADRANT.TWO);
             }
@@ -677,13 +749,13 @@ public class Feeder extends JComponent {
                 setRandomMovementVector(QUADRANT.TWO_OR_THREE);
             }
         }
-        else if (currentLocation.y < Environment.getMinY()) {    // on top edge
+        else if (state.y[index] < world.getMinY()) {    // on top edge
             // set to point to the third or fourth quad
             setRandomMovementVector(QUADRANT.THREE_OR_FOUR);
             // in checking y, we don't need to check x since it was checked
             // above.
         }
-        else if (currentLocation.y > Environment.getMaxY()) {    // on bottom edge
+        else if (state.y[index] > world.getMaxY()) {    // on bottom edge
             // set to point to the first or second quad
             setRandomMovementVector(QUADRANT.THREE_OR_FOUR);
         }
@@ -695,84 +767,110 @@ public class Feeder extends JComponent {
      * @param newY the new y coordinate
      */
     private void setNewLocation(double newX, double newY) {
-        currentLocation.x = newX;
-        currentLocation.y = newY;
+        state.x[index] = newX;
+        state.y[index] = newY;
+    }
+
+    /**
+     * Gets the farthest distance any feeder can see.
+     * @return the highest possible effective eyesight
+     */
+    public static double getMaxEffectiveEyesight() {
+        return MAXEYESIGHT * eyesightModifier;
     }
 
     /**
      * Gets the feeder's effective eyesight strength.
      * @return the feeder's eyesight
      */
-    public double getEffectiveEyesight() { return effectiveEyesight; }
+    public double getEffectiveEyesight() { return state.eyesight[index]; }
 
     /**
-     * Gest the feeder's current location.
-     * @return the feeder's current location
+     * Gets the x coordinate of the feeder's current location.
+     * @return the feeder's x coordinate
      */
-    public Point2D.Double getCurrentLocation() { return currentLocation; }
+    public double getX() { return state.x[index]; }
 
     /**
-     * Gets a random number between zero and the maximum effective intelligence
-     * value.
-     * @return a random number between zero and the maximum effective
-     * intelligence level
+     * Gets the y coordinate of the feeder's current location.
+     * @return the feeder's y coordinate
      */
-    public static double intelligenceRoll() {
-        return Math.random() * MAXINTELLIGENCE * intelligenceModifier;
-    }
+    public double getY() { return state.y[index]; }
 
     /**
-     * Gets the feeder's effective intelligence level.
-     * @return the feeder's effective intelligence level
+     * Gets a copy of the feeder's movement vector.
+     * @return the feeder's movement vector
      */
-    double getEffectiveIntelligence() {
-        return effectiveIntelligence;
+    public Point2D.Double getMovementVector() {
+        return new Point2D.Double(state.vx[index], state.vy[index]);
     }
 
     /**
-     * Gets the feeder's observed food list.
-     * @return
+     * Gets the feeder's index in its feeder state.
+     * @return the feeder's index, or -1 if it has been removed
      */
-    public ArrayList<Food> getObservedFood() { return observedFood; }
+    int getIndex() { return index; }
 
     /**
-     * Removes a food object from the observed list.
-     * @param f the food object to remove
+     * Sets the feeder's index in its feeder state. Only the state calls this,
+     * when it moves feeders around to keep its arrays packed.
+     * @param value the feeder's new index
      */
-    public void removeFromObserved(Food f) {
-        if (observedFood.contains(f)) observedFood.remove(f);
-    }
+    void setIndex(int value) { index = value; }
 
-    static void displayFeederID() {
-        displayID = true;
+    /**
+     * Gets a random number between zero and the maximum effective intelligence
+     * value.
+     * @return a random number between zero and the maximum effective
+     * intelligence level
+     */
+    public double intelligenceRoll() {
+        return random.nextDouble() * MAXINTELLIGENCE * intelligenceModifier;
     }
 
     /**
-     * Displays the feeder's unique ID.
+     * Gets the chance that one call to isFood() returns true.
+     * @return the chance of recognising food, between zero and one
      */
-    static void hideFeederID() { displayID = false; }
+    double getRecognitionChance() {
+        if (intelligence == MAXINTELLIGENCE) return 1;
+        return Math.min(1, state.intelligence[index] /
+                (MAXINTELLIGENCE * intelligenceModifier));
+    }
 
     /**
-     * Displays the food eaten amount.
+     * Gets the feeder's effective intelligence level.
+     * @return the feeder's effective intelligence level
      */
-    static void displayFoodEaten() { displayFoodEaten = true; }
+    double getEffectiveIntelligence() {
+        return state.intelligence[index];
+    }
 
     /**
-     * Hides the food eaten amount.
+     * Gets the feeder's observed food set.
+     * @return the observed food set
      */
-    static void hideFoodEaten() { displayFoodEaten = false; }
+    public FoodSet getObservedFood() { return observedFood; }
 
     /**
-     * Determines if the feeder ID field is displayed.
-     * @return true if it is displayed, false if it is not
+     * Determines if the feeder has already observed a food object.
+     * @param f the food object to check
+     * @return true if it is in the observed set, false if not
      */
-    static boolean isIDDisplayed() { return displayID; }
+    public boolean hasObserved(Food f) { return observedFood.contains(f); }
 
     /**
-     * Determines if the food eaten amount is displayed.
-     * @return true if it is displayed, false if it is not.
+     * Removes a food object from the observed set, and the feeder from the
+     * food's observers, so the feeder isn't told when it is eaten. Only call
+     * this from the thread that steps the world.
+     * @param f the food object to remove
      */
-    static boolean isEatenDisplayed() { return displayFoodEaten; }
+    public void removeFromObserved(Food f) {
+        if (observedFood.remove(f))
+            world.getFoodCollection().getObservers().remove(f, this);
+        if (f == target)
+            target = null;
+    }
 
     public void dispose() {
         
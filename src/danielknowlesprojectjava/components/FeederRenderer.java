@@ -0,0 +1,137 @@
+package danielknowlesprojectjava.components;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+
+/**
+ * Draws feeders in the environment.
+ */
+public class FeederRenderer {
+    // render flags for attributes
+    private static boolean displayFov = true;
+    private static boolean displayID = true;
+    private static boolean displayFoodEaten = true;
+    // reused for drawing every feeder's body
+    private final Ellipse2D.Double body = new Ellipse2D.Double();
+
+    /**
+     * Determines if the feeders' fields of vision are displayed.
+     * @return true if vision is displayed, false if not
+     */
+    public static boolean isVisionDisplayed() { return displayFov; }
+
+    /**
+     * Hides all feeder fields of vision.
+     */
+    public static void hideFieldOfVision() { displayFov = false; }
+
+    /**
+     * Shows all feeder fields of vision.
+     */
+    public static void showFieldOfVision() { displayFov = true; }
+
+    /**
+     * Displays the feeders' unique IDs.
+     */
+    static void displayFeederID() { displayID = true; }
+
+    /**
+     * Hides the feeders' unique IDs.
+     */
+    static void hideFeederID() { displayID = false; }
+
+    /**
+     * Displays the food eaten amount.
+     */
+    static void displayFoodEaten() { displayFoodEaten = true; }
+
+    /**
+     * Hides the food eaten amount.
+     */
+    static void hideFoodEaten() { displayFoodEaten = false; }
+
+    /**
+     * Determines if the feeder ID field is displayed.
+     * @return true if it is displayed, false if it is not
+     */
+    static boolean isIDDisplayed() { return displayID; }
+
+    /**
+     * Determines if the food eaten amount is displayed.
+     * @return true if it is displayed, false if it is not.
+     */
+    static boolean isEatenDisplayed() { return displayFoodEaten; }
+
+    /**
+     * Renders a collection of feeders.
+     * @param g the graphics context that draws the feeders
+     * @param feeders the feeders to draw
+     */
+    public void draw(Graphics g, Iterable<Feeder> feeders) {
+        Graphics2D g2 = (Graphics2D) g;
+
+        for (Feeder f : feeders) {
+            drawFeeder(g2, f);
+        }
+    }
+
+    /**
+     * Renders a single feeder.
+     * @param g2 the graphics context that draws the feeder
+     * @param f the feeder to draw
+     */
+    private void drawFeeder(Graphics2D g2, Feeder f) {
+        String additionalInfo = "";
+        if (displayID)
+            additionalInfo += String.valueOf(f.getFeederID());
+
+        if (displayFoodEaten) {
+            if (displayID)
+                additionalInfo += " : ";
+            additionalInfo += String.valueOf(f.getFoodEaten());
+        }
+
+        g2.setColor(Color.WHITE);
+        body.setFrame(f.getX(), f.getY(), f.getWidth(), f.getHeight());
+        g2.fill(body);
+
+        g2.setColor(Color.BLACK);
+        g2.drawString(additionalInfo, (float) f.getCenterX(),
+                     (float) f.getCenterY());
+
+        g2.draw(body);
+
+        if (displayFov)
+            drawLineOfSight(g2, f);
+    }
+
+    /**
+     * Displays the feeder's line of sight as a triangle. It should be noted
+     * that the feeder will not be able to see things at the outer angles of
+     * the triangle. The line of sight is limited by the feeder's sight
+     * distance. You should view the outer angles and edge more like an arc.
+     * @param g2 the graphics context
+     * @param f the feeder whose line of sight is drawn
+     */
+    private void drawLineOfSight(Graphics2D g2, Feeder f)
+    {
+        int centerX = (int) Math.round(f.getCenterX());
+        int centerY = (int) Math.round(f.getCenterY());
+        int perPoint1X = (int) Math.round(f.getPerPoint1X());
+        int perPoint1Y = (int) Math.round(f.getPerPoint1Y());
+        int perPoint2X = (int) Math.round(f.getPerPoint2X());
+        int perPoint2Y = (int) Math.round(f.getPerPoint2Y());
+        g2.setColor(Color.LIGHT_GRAY);
+
+        g2.drawLine(centerX, centerY, perPoint1X, perPoint1Y);
+
+        // Get the bottom point of the perception triangle
+        g2.drawLine(centerX, centerY, perPoint2X, perPoint2Y);
+
+        g2.drawLine(perPoint1X, perPoint1Y, perPoint2X, perPoint2Y);
+
+        g2.setColor(Color.BLACK);
+    }
+}
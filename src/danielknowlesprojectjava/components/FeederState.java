@@ -0,0 +1,240 @@
+package danielknowlesprojectjava.components;
+
+import java.util.Arrays;
+
+/**
+ * The per-tick state of every feeder in the world, stored as parallel
+ * arrays of primitives. Feeder i's location is (x[i], y[i]), its movement
+ * vector is (vx[i], vy[i]) and so on. Keeping the values next to each other
+ * in memory lets the simulation run over all of the feeders with simple
+ * indexed loops instead of chasing a pointer per feeder.
+ *
+ * Each feeder object knows its own index and reads and writes its values
+ * here.
+ */
+public class FeederState {
+    // the number of slots to start with
+    private static final int INITIAL_CAPACITY = 64;
+    // the number of feeders in the state
+    private int size = 0;
+    // the feeder that owns each slot
+    Feeder[] feeders;
+    // location of each feeder (top left corner)
+    double[] x;
+    double[] y;
+    // movement vector of each feeder
+    double[] vx;
+    double[] vy;
+    // effective trait values of each feeder
+    double[] speed;
+    double[] eyesight;
+    double[] intelligence;
+    // the number of food objects each feeder has eaten
+    int[] foodEaten;
+    // the food each feeder is trying to eat this tick (null if none)
+    Food[] claimed;
+    // the number of food objects each feeder has observed since the food
+    // collection's observer index was last told about them
+    int[] unregistered;
+    // the two outer points of each feeder's perception triangle
+    double[] p1x;
+    double[] p1y;
+    double[] p2x;
+    double[] p2y;
+    // the edge normals and offsets of each feeder's cone of perception
+    double[] nax;
+    double[] nay;
+    double[] nac;
+    double[] nbx;
+    double[] nby;
+    double[] nbc;
+
+    /**
+     * Creates a new, empty feeder state.
+     */
+    public FeederState() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Sets every array to a new capacity, keeping the existing values.
+     * @param capacity the new capacity
+     */
+    private void allocate(int capacity) {
+        if (feeders == null) {
+            feeders = new Feeder[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            vx = new double[capacity];
+            vy = new double[capacity];
+            speed = new double[capacity];
+            eyesight = new double[capacity];
+            intelligence = new double[capacity];
+            foodEaten = new int[capacity];
+            claimed = new Food[capacity];
+            unregistered = new int[capacity];
+            p1x = new double[capacity];
+            p1y = new double[capacity];
+            p2x = new double[capacity];
+            p2y = new double[capacity];
+            nax = new double[capacity];
+            nay = new double[capacity];
+            nac = new double[capacity];
+            nbx = new double[capacity];
+            nby = new double[capacity];
+            nbc = new double[capacity];
+        } else {
+            feeders = Arrays.copyOf(feeders, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            eyesight = Arrays.copyOf(eyesight, capacity);
+            intelligence = Arrays.copyOf(intelligence, capacity);
+            foodEaten = Arrays.copyOf(foodEaten, capacity);
+            claimed = Arrays.copyOf(claimed, capacity);
+            unregistered = Arrays.copyOf(unregistered, capacity);
+            p1x = Arrays.copyOf(p1x, capacity);
+            p1y = Arrays.copyOf(p1y, capacity);
+            p2x = Arrays.copyOf(p2x, capacity);
+            p2y = Arrays.copyOf(p2y, capacity);
+            nax = Arrays.copyOf(nax, capacity);
+            nay = Arrays.copyOf(nay, capacity);
+            nac = Arrays.copyOf(nac, capacity);
+            nbx = Arrays.copyOf(nbx, capacity);
+            nby = Arrays.copyOf(nby, capacity);
+            nbc = Arrays.copyOf(nbc, capacity);
+        }
+    }
+
+    /**
+     * Gets the number of feeders in the state.
+     * @return the number of feeders
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the feeder that owns a slot.
+     * @param index the slot index
+     * @return the feeder at that index
+     */
+    public Feeder get(int index) { return feeders[index]; }
+
+    /**
+     * Gives a feeder a new, zeroed slot.
+     * @param f the feeder that owns the slot
+     * @return the index of the slot
+     */
+    int add(Feeder f) {
+        if (size == feeders.length)
+            allocate(size * 2);
+
+        feeders[size] = f;
+        x[size] = 0;
+        y[size] = 0;
+        vx[size] = 0;
+        vy[size] = 0;
+        speed[size] = 0;
+        eyesight[size] = 0;
+        intelligence[size] = 0;
+        foodEaten[size] = 0;
+        claimed[size] = null;
+        unregistered[size] = 0;
+        p1x[size] = 0;
+        p1y[size] = 0;
+        p2x[size] = 0;
+        p2y[size] = 0;
+        nax[size] = 0;
+        nay[size] = 0;
+        nac[size] = 0;
+        nbx[size] = 0;
+        nby[size] = 0;
+        nbc[size] = 0;
+
+        return size++;
+    }
+
+    /**
+     * Removes a feeder's slot. The last feeder is moved into the empty slot
+     * so that the arrays stay packed.
+     * @param f the feeder to remove
+     */
+    public void remove(Feeder f) {
+        int index = f.getIndex();
+        if (index < 0 || index >= size || feeders[index] != f) return;
+
+        int last = --size;
+        if (index != last) {
+            feeders[index] = feeders[last];
+            x[index] = x[last];
+            y[index] = y[last];
+            vx[index] = vx[last];
+            vy[index] = vy[last];
+            speed[index] = speed[last];
+            eyesight[index] = eyesight[last];
+            intelligence[index] = intelligence[last];
+            foodEaten[index] = foodEaten[last];
+            claimed[index] = claimed[last];
+            unregistered[index] = unregistered[last];
+            p1x[index] = p1x[last];
+            p1y[index] = p1y[last];
+            p2x[index] = p2x[last];
+            p2y[index] = p2y[last];
+            nax[index] = nax[last];
+            nay[index] = nay[last];
+            nac[index] = nac[last];
+            nbx[index] = nbx[last];
+            nby[index] = nby[last];
+            nbc[index] = nbc[last];
+            feeders[index].setIndex(index);
+        }
+        feeders[last] = null;
+        claimed[last] = null;
+        f.setIndex(-1);
+    }
+
+    /**
+     * Removes every feeder from the state.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            feeders[i].setIndex(-1);
+            feeders[i] = null;
+            claimed[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves a range of feeders along their movement vectors.
+     * @param from the index of the first feeder to move
+     * @param to one past the index of the last feeder to move
+     */
+    void move(int from, int to) {
+        final double[] x = this.x;
+        final double[] y = this.y;
+        final double[] vx = this.vx;
+        final double[] vy = this.vy;
+
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    /**
+     * Determines if a feeder has moved outside of a set of bounds.
+     * @param index the feeder's index
+     * @param minX the lowest allowed x coordinate
+     * @param minY the lowest allowed y coordinate
+     * @param maxX the highest allowed x coordinate
+     * @param maxY the highest allowed y coordinate
+     * @return true if the feeder is out of bounds
+     */
+    boolean isOutOfBounds(int index, double minX, double minY,
+            double maxX, double maxY) {
+        return x[index] < minX || x[index] > maxX ||
+               y[index] < minY || y[index] > maxY;
+    }
+}
@@ -0,0 +1,131 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.geneticAlgorithm.DoubleSeries;
+import java.util.Arrays;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The table model behind the GA performance dialog. Each generation's
+ * fitness is kept in a pair of double series, the same as the genetic
+ * engine's history, next to an array of generation numbers. A cell's text
+ * is only made when the table asks for it, which it only does for the rows
+ * on screen. The table costs about the same to show however many
+ * generations it holds.
+ *
+ * Rows can be added from any thread. They are held until the event
+ * dispatch thread next gets round to them, then added to the table all at
+ * once with a single insert event, so a world running flat out doesn't
+ * flood the event queue with one event per generation.
+ */
+class FitnessTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    // the column titles
+    private static final String[] COLUMN_NAMES = {
+        "Generation", "Average Fitness", "Highest Fitness"
+    };
+
+    // the generation number and fitness of each row. only used on the event
+    // dispatch thread
+    private int[] generation = new int[64];
+    private final DoubleSeries average = new DoubleSeries(
+            DoubleSeries.Downsampling.MEAN);
+    private final DoubleSeries highest = new DoubleSeries(
+            DoubleSeries.Downsampling.MAX);
+
+    // rows waiting to be added to the table, guarded by the lock
+    private final Object pendingLock = new Object();
+    private int[] pendingGeneration = new int[64];
+    private final DoubleSeries pendingAverage = new DoubleSeries(
+            DoubleSeries.Downsampling.MEAN);
+    private final DoubleSeries pendingHighest = new DoubleSeries(
+            DoubleSeries.Downsampling.MAX);
+    // set when the pending rows have been handed to the event dispatch
+    // thread but not added yet
+    private boolean flushQueued = false;
+    // moves the pending rows into the table
+    private final Runnable flush = new Runnable() {
+        public void run() {
+            flushPending();
+        }
+    };
+
+    /**
+     * Adds a generation's row. Can be called from any thread.
+     * @param genNumber the generation number
+     * @param avgFit the average fitness for the generation
+     * @param highFit the highest fitness for the generation
+     */
+    void addRow(int genNumber, double avgFit, double highFit) {
+        synchronized (pendingLock) {
+            int pendingSize = pendingAverage.size();
+            if (pendingSize == pendingGeneration.length)
+                pendingGeneration = Arrays.copyOf(pendingGeneration,
+                        pendingSize * 2);
+            pendingGeneration[pendingSize] = genNumber;
+            pendingAverage.add(avgFit);
+            pendingHighest.add(highFit);
+
+            if (flushQueued) return;
+            flushQueued = true;
+        }
+        SwingUtilities.invokeLater(flush);
+    }
+
+    /**
+     * Moves the pending rows into the table and tells the table about them.
+     * Runs on the event dispatch thread.
+     */
+    private void flushPending() {
+        int first = average.size();
+        synchronized (pendingLock) {
+            flushQueued = false;
+            int pendingSize = pendingAverage.size();
+            if (pendingSize == 0) return;
+
+            if (first + pendingSize > generation.length)
+                generation = Arrays.copyOf(generation,
+                        Math.max(first + pendingSize, generation.length * 2));
+            System.arraycopy(pendingGeneration, 0, generation, first,
+                    pendingSize);
+            for (int i = 0; i < pendingSize; i++) {
+                average.add(pendingAverage.get(i));
+                highest.add(pendingHighest.get(i));
+            }
+            pendingAverage.clear();
+            pendingHighest.clear();
+        }
+        fireTableRowsInserted(first, average.size() - 1);
+    }
+
+    /**
+     * Removes every row, including any still waiting to be added. The
+     * arrays are kept for the next run. Call on the event dispatch thread.
+     */
+    void clear() {
+        synchronized (pendingLock) {
+            pendingAverage.clear();
+            pendingHighest.clear();
+        }
+        if (average.size() == 0) return;
+        average.clear();
+        highest.clear();
+        fireTableDataChanged();
+    }
+
+    public int getRowCount() { return average.size(); }
+
+    public int getColumnCount() { return COLUMN_NAMES.length; }
+
+    @Override
+    public String getColumnName(int column) { return COLUMN_NAMES[column]; }
+
+    @Override
+    public Class<?> getColumnClass(int column) { return String.class; }
+
+    public Object getValueAt(int row, int column) {
+        if (column == 0) return String.valueOf(generation[row]);
+        if (column == 1) return String.valueOf(average.get(row));
+        return String.valueOf(highest.get(row));
+    }
+}
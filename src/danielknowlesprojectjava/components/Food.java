@@ -1,28 +1,24 @@
 package danielknowlesprojectjava.components;
 
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
-import java.util.Random;
-import javax.swing.JComponent;
 
 /**
- * Food for the feeders to eat.
+ * Food for the feeders to eat. Food objects are plain data objects;
+ * FoodRenderer draws them.
  */
-public class Food extends JComponent {
+public class Food {
     private Point2D.Double currentLocation = new Point2D.Double();
     private int width = 5;
     private int height = 5;
     private static int defaultSize = 5;
     private boolean active = true;
+    // the food's index in the food collection (-1 if it isn't in one)
+    private int index = -1;
 
     /**
      * Creates a new food object.
      */
     public Food() {
-        super();
     }
 
     /**
@@ -39,30 +35,54 @@ public class Food extends JComponent {
         height = h;
     }
 
+    /**
+     * Gets the width of the food object.
+     * @return the width of the food object
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Gets the height of the food object.
+     * @return the height of the food object
+     */
+    public int getHeight() { return height; }
+
     /**
      * Gets the food's current location
      * @return the food's current location
      */
     public Point2D.Double getCurrentLocation() { return currentLocation; }
 
-    private static Random rnd = new Random();
     /**
      * Creates a random food object.
+     * @param world the world to put the food in
      * @return a random food object
      */
-    public static Food getRandomFood() {
-        // set random position that is in environment bounds
-        int maxX = Environment.getMaxX() - (Environment.getMinX() + defaultSize);
-        int maxY = Environment.getMaxY() - (Environment.getMinY() + defaultSize);
-        int minX = Environment.getMinX() + defaultSize;
-        int minY = Environment.getMinY() + defaultSize;
-
-        Point2D.Double pos = new Point2D.Double(
-                (double) (rnd.nextDouble() * maxX + minX),
-                (double) (rnd.nextDouble() * maxY + minY));
-
+    public static Food getRandomFood(World world) {
         // create new food
-        return new Food(defaultSize, defaultSize, pos);
+        Food f = new Food();
+        f.placeRandomly(world);
+        return f;
+    }
+
+    /**
+     * Gives the food object the default size, puts it at a random location
+     * in a world and makes it active again. This lets the food collection
+     * reuse the food of one generation for the next.
+     * @param world the world to put the food in
+     */
+    public void placeRandomly(World world) {
+        // set random position that is in environment bounds
+        int maxX = world.getMaxX() - (world.getMinX() + defaultSize);
+        int maxY = world.getMaxY() - (world.getMinY() + defaultSize);
+        int minX = world.getMinX() + defaultSize;
+        int minY = world.getMinY() + defaultSize;
+
+        width = defaultSize;
+        height = defaultSize;
+        currentLocation.x = world.getRandom().nextDouble() * maxX + minX;
+        currentLocation.y = world.getRandom().nextDouble() * maxY + minY;
+        active = true;
     }
 
     /**
@@ -86,9 +106,10 @@ public class Food extends JComponent {
         // if food has been eaten, the feeder can't eat it again
         if (!active) return false;
         // if the food is already in the feeder's observed list, it has already
-        // responded to it.
-        if (fr.getObservedFood().contains(this)) return false;
-        double distance = currentLocation.distance(fr.getCurrentLocation());
+        // responded to it. looking that up costs more than the distance and
+        // cone tests, and most food fails those, so it's checked last.
+        double distance = Point2D.distance(currentLocation.x,
+                currentLocation.y, fr.getX(), fr.getY());
         // if the feeder is blind, it won't see anything, it will have to be at
         //  the food's location so that it can touch and/or smell it.
         if (fr.getEffectiveEyesight() == 0) {
@@ -96,17 +117,17 @@ public class Food extends JComponent {
                 // we'll use the feeder's intelligence to see if it notices
                 //  the object.
                 //if (fr.isFood(this))
-                    return true;
+                    return !fr.hasObserved(this);
             }
         } else {
             if (distance <= 0 || distance <= fr.getEffectiveEyesight()) {
                  // check if food is located within cone of perception
-                if (isInConeOfPerception(fr, this.getCenter()))
+                if (fr.isInConeOfPerception(getCenterX(), getCenterY()))
                 {
                     // need to check intelligence to see if the feeder thinks
                     // this object is a food.
 //                    if (fr.isFood(this))
-                        return true;
+                        return !fr.hasObserved(this);
                 }
                 else
                 {
@@ -117,7 +138,7 @@ public class Food extends JComponent {
                         // need to check intelligence to see if the feeder thinks
                         // this object is a food.
 //                        if (fr.isFood(this))
-                            return true;
+                            return !fr.hasObserved(this);
                     }
                 }
             }
@@ -130,78 +151,17 @@ public class Food extends JComponent {
     private boolean isBleedOver(Feeder f)
     {
         //get center coordinates for food
-        double eCenterX = this.getCenter().x;
-        double eCenterY = this.getCenter().y;
-
-        //get corners of bounding box for food
-        Point2D topLeft = new Point2D.Double((eCenterX - (this.getWidth() / 2)), (eCenterY - (this.getHeight() / 2)));
-
-        Point2D topRight = new Point2D.Double((eCenterX + (this.getWidth() / 2)), (eCenterY - (this.getHeight() / 2)));
-
-        Point2D bottomLeft = new Point2D.Double((eCenterX - (this.getWidth() / 2)), (eCenterY + (this.getHeight() / 2)));
-
-        Point2D bottomRight = new Point2D.Double((eCenterX + (this.getWidth() / 2)), (eCenterY + (this.getHeight() / 2)));
-
-        if (isInConeOfPerception(f, topLeft))
-        {
-            return true;
-        }
-
-        if (isInConeOfPerception(f, topRight))
-        {
-            return true;
-        }
-
-        if (isInConeOfPerception(f, bottomLeft))
-        {
-            return true;
-        }
-
-        if (isInConeOfPerception(f, bottomRight))
-        {
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Checks to see if the food is in the feeder's cone of perception.
-     * @param f the food object
-     * @param tPoint the point to check
-     * @return true if the food is in the feeder's FOV, false if it is not
-     */
-    private boolean isInConeOfPerception(Feeder f, Point2D tPoint)
-    {
-        double px = f.getCenter().getX();
-        double py = f.getCenter().getY();
-        double ex = tPoint.getX();
-        double ey = tPoint.getY();
-        double ax = f.getPerPoint1().getX();
-        double ay = f.getPerPoint1().getY();
-        double bx = f.getPerPoint2().getX();
-        double by = f.getPerPoint2().getY();
-
-        // find x and y properties for the vectors a-p, e-p, b-p
-        double apx = ax - px;
-        double apy = ay - py;
-        double epy = ey - py;
-        double epx = ex - px;
-        double bpy = by - py;
-        double bpx = bx - px;
-
-        //find z for cross products ap x ep, ap x bp and bp x ep
-        double apepz = apx * epy - apy * epx;
-        double apbpz = apx * bpy - apy * bpx;
-        double bpepz = bpx * epy - bpy * epx;
-        double bpapz = bpx * apy - bpy * apx;
-
-        //if the product of apepz and apbpz is >=0 then point is on correct side of line ap
-        boolean testAP = (apepz * apbpz >= 0);
-        boolean testBP = (bpepz * bpapz >= 0);
-
-        //if it not on the correct side then return false
-        return testAP && testBP;
+        double eCenterX = getCenterX();
+        double eCenterY = getCenterY();
+        double halfWidth = width / 2;
+        double halfHeight = height / 2;
+
+        //check the corners of bounding box for food: top left, top right,
+        // bottom left and bottom right
+        return f.isInConeOfPerception(eCenterX - halfWidth, eCenterY - halfHeight) ||
+               f.isInConeOfPerception(eCenterX + halfWidth, eCenterY - halfHeight) ||
+               f.isInConeOfPerception(eCenterX - halfWidth, eCenterY + halfHeight) ||
+               f.isInConeOfPerception(eCenterX + halfWidth, eCenterY + halfHeight);
     }
 
     /**
@@ -210,31 +170,41 @@ public class Food extends JComponent {
      */
     public Point2D.Double getCenter()
     {
-        double centerX = currentLocation.x + (width / 2);
-        double centerY = currentLocation.y + (height / 2);
-
-        return new Point2D.Double(centerX, centerY);
+        return new Point2D.Double(getCenterX(), getCenterY());
     }
 
-    @Override
-    public void paintComponent(Graphics g)
-    {
-
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setColor(Color.green);
-        Ellipse2D r = new Ellipse2D.Double(
-            currentLocation.x, currentLocation.y, width, height);
+    /**
+     * Gets the x coordinate of the center of the food object.
+     * @return the center's x coordinate
+     */
+    public double getCenterX() { return currentLocation.x + (width / 2); }
 
-        g2.draw(r);
-        g2.fill(r);
-        g2.setColor(Color.black);
-    }
+    /**
+     * Gets the y coordinate of the center of the food object.
+     * @return the center's y coordinate
+     */
+    public double getCenterY() { return currentLocation.y + (height / 2); }
 
     /**
-     * Marks the food as eaten by setting its active flag to false.
+     * Marks the food as eaten by setting its active flag to false. Use
+     * FoodCollection.removeFood() to take it out of the world as well.
      */
     public void markAsEaten() { active = false; }
 
+    /**
+     * Gets the food's index in the food collection. Indices are dense, so
+     * they can be used to key sets and arrays of food.
+     * @return the food's index, or -1 if it isn't in the collection
+     */
+    public int getIndex() { return index; }
+
+    /**
+     * Sets the food's index. This is called by the food collection when the
+     * food is added.
+     * @param value the food's index
+     */
+    public void setIndex(int value) { index = value; }
+
     /**
      * Determines if the food is still active.
      * @return true if it is active, false if it is not
@@ -0,0 +1,37 @@
+package danielknowlesprojectjava.components;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+
+/**
+ * Draws food in the environment.
+ */
+public class FoodRenderer {
+    // reused for drawing every food object
+    private final Ellipse2D.Double shape = new Ellipse2D.Double();
+
+    /**
+     * Renders the active food in a collection. Food that has been eaten is
+     * skipped.
+     * @param g the graphics context that draws the food
+     * @param foods the food to draw
+     */
+    public void draw(Graphics g, Iterable<Food> foods) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(Color.green);
+
+        for (Food f : foods) {
+            // make sure the food hasn't been eaten before rendering it.
+            if (!f.isActive()) continue;
+
+            shape.setFrame(f.getCurrentLocation().x, f.getCurrentLocation().y,
+                    f.getWidth(), f.getHeight());
+            g2.draw(shape);
+            g2.fill(shape);
+        }
+
+        g2.setColor(Color.black);
+    }
+}
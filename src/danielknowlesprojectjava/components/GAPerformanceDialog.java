@@ -11,91 +11,74 @@
 
 package danielknowlesprojectjava.components;
 
+import danielknowlesprojectjava.geneticAlgorithm.DoubleSeries;
 import java.awt.Frame;
-import java.util.ArrayList;
-import javax.swing.table.DefaultTableModel;
 
 /**
  *
  * @author Lee
  */
 public class GAPerformanceDialog extends javax.swing.JDialog {
+    // holds the rows of the performance table
+    private final FitnessTableModel model = new FitnessTableModel();
 
     /** Creates new form StatsDialog */
     public GAPerformanceDialog(java.awt.Frame parent, boolean modal) {
         super(parent, modal);
         initComponents();
+        performanceTable.setModel(model);
     }
 
     /**
      * Creates a new GA Stats Dialog Frame
      * @param parent the environment frame
-     * @param avgFit list of average fitness scores
-     * @param highFit list of highest fitness scores
+     * @param avgFit the average fitness scores
+     * @param highFit the highest fitness scores
      */
     public GAPerformanceDialog(EnvironmentFrame parent,
-            ArrayList<Double> avgFit, ArrayList<Double> highFit) {
+            DoubleSeries avgFit, DoubleSeries highFit) {
         //super((Frame) parent, false);
 
         initComponents();
+        performanceTable.setModel(model);
         setTableContents(avgFit, highFit);
     }
 
     /**
      * Populates the performance table with each generation's statistics.
+     * If the series have been merged to fit a limit, each row covers
+     * several generations and is labelled with the first of them.
      * @param avgFit the average fitness scores
      * @param genFit the highest fitness scores
      */
-    private void setTableContents(ArrayList<Double> avgFit,
-            ArrayList<Double> highFit) {
+    private void setTableContents(DoubleSeries avgFit,
+            DoubleSeries highFit) {
         //if (avgFit == null) return;
+        int stride = avgFit.getStride();
 
-        // get the table's model
-        DefaultTableModel model = (DefaultTableModel) performanceTable.getModel();
-        
-        // the data to put in each row
-        String[] rowData = new String[3];
-
-        // iterate through the lists of fitness scores
+        // iterate through the fitness scores
         for (int i = 0; i < avgFit.size(); i++) {
-            rowData[0] = String.valueOf(i+1); // generation number
-            rowData[1] = String.valueOf(avgFit.get(i));  // average fitness
-            rowData[2] = String.valueOf(highFit.get(i)); // highest fitness
-
-            // add the new row
-            model.addRow(rowData);
+            model.addRow(i * stride + 1, avgFit.get(i), highFit.get(i));
         }
     }
 
     /**
-     * Add a row to the performance table.
+     * Add a row to the performance table. Can be called from any thread;
+     * the row shows up once the event dispatch thread gets to it.
      * @param genNumber the generation number
      * @param avgFit the average fitness for the generation
      * @param highFit the highest fitness for the generation
      */
     public void addTableRow(int genNumber, double avgFit, double highFit) {
-        // get the table's model
-        DefaultTableModel model = (DefaultTableModel) performanceTable.getModel();
-        // the data to put in each row
-        String[] rowData = new String[3];
-        // add generation number to the row
-        rowData[0] = String.valueOf(genNumber);
-        // add average fitness for the generation
-        rowData[1] = String.valueOf(avgFit);
-        // add highest fitness for the generation
-        rowData[2] = String.valueOf(highFit);
-
-        // add the row to the table
-        model.addRow(rowData);
+        model.addRow(genNumber, avgFit, highFit);
     }
 
+    /**
+     * Removes every row from the performance table. Call on the event
+     * dispatch thread.
+     */
     void clearTable() {
-         // get the table's model
-        DefaultTableModel model = (DefaultTableModel) performanceTable.getModel();
-
-        for (int i = 0; i < model.getRowCount(); i++) {
-            model.removeRow(i);
-        }
+        model.clear();
     }
 
 
@@ -134,7 +117,6 @@ public class GAPerformanceDialog extends javax.swing.JDialog {
             }
         });
         performanceTable.setFillsViewportHeight(true);
-        performanceTable.setPreferredSize(new java.awt.Dimension(100, 64));
         jScrollPane2.setViewportView(performanceTable);
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
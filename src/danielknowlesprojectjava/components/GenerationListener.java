@@ -0,0 +1,15 @@
+package danielknowlesprojectjava.components;
+
+/**
+ * Gets told when the world finishes a generation.
+ */
+public interface GenerationListener {
+
+    /**
+     * Called after a generation has been scored and the next one created.
+     * @param genNumber the number of the generation that just finished
+     * @param avgFit the average fitness of the generation
+     * @param highFit the highest fitness of the generation
+     */
+    void generationAdvanced(int genNumber, double avgFit, double highFit);
+}
@@ -11,8 +11,6 @@
 
 package danielknowlesprojectjava.components;
 
-import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
-
 /**
  *
  * @author Lee
@@ -49,6 +47,8 @@ public class OptionsDialog extends javax.swing.JDialog {
         mutationLabel = new javax.swing.JLabel();
         crossoverText = new javax.swing.JTextField();
         mutationText = new javax.swing.JTextField();
+        seedLabel = new javax.swing.JLabel();
+        seedText = new javax.swing.JTextField();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setTitle("Additional Options");
@@ -56,17 +56,17 @@ public class OptionsDialog extends javax.swing.JDialog {
 
         popSizeLabel.setText("Population Size: ");
 
-        popSizeText.setColumns(3);
+        popSizeText.setColumns(6);
 
         popLimitLabel.setForeground(new java.awt.Color(255, 0, 0));
-        popLimitLabel.setText("Max is 500");
+        popLimitLabel.setText("Max is");
 
         foodAmountLabel.setText("Amount of Food: ");
 
-        foodAmountText.setColumns(3);
+        foodAmountText.setColumns(6);
 
         foodLimitLabel.setForeground(new java.awt.Color(255, 0, 0));
-        foodLimitLabel.setText("Max is 500");
+        foodLimitLabel.setText("Max is");
 
         okButton.setText("OK");
         okButton.addActionListener(new java.awt.event.ActionListener() {
@@ -92,6 +92,10 @@ public class OptionsDialog extends javax.swing.JDialog {
 
         mutationText.setColumns(4);
 
+        seedLabel.setText("Random Seed: ");
+
+        seedText.setColumns(12);
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -113,6 +117,7 @@ public class OptionsDialog extends javax.swing.JDialog {
                             .addComponent(foodAmountLabel)
                             .addComponent(crossoverLabel)
                             .addComponent(mutationLabel)
+                            .addComponent(seedLabel)
                             .addComponent(okButton))
                         .addGap(10, 10, 10)
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
@@ -122,7 +127,8 @@ public class OptionsDialog extends javax.swing.JDialog {
                                 .addComponent(foodAmountText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                                 .addComponent(foodLimitLabel))
-                            .addComponent(mutationText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))))
+                            .addComponent(mutationText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(seedText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))))
                 .addContainerGap(40, Short.MAX_VALUE))
         );
         layout.setVerticalGroup(
@@ -151,6 +157,10 @@ public class OptionsDialog extends javax.swing.JDialog {
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                             .addComponent(mutationText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                             .addComponent(mutationLabel))
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                            .addComponent(seedText, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(seedLabel))
                         .addGap(18, 18, 18)
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                             .addComponent(okButton)
@@ -158,10 +168,14 @@ public class OptionsDialog extends javax.swing.JDialog {
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
-        popSizeText.setText(String.valueOf(Environment.getNumFeeders()));
-        foodAmountText.setText(String.valueOf(Environment.getNumFoods()));
-        crossoverText.setText(String.valueOf(GeneticEngine.getCrossoverProbability()));
-        mutationText.setText(String.valueOf(GeneticEngine.getMutationProbability()));
+        World world = parentFrame.getEnvironment().getWorld();
+        popSizeText.setText(String.valueOf(world.getNumFeeders()));
+        popLimitLabel.setText("Max is " + world.getMaxFeeders());
+        foodAmountText.setText(String.valueOf(world.getNumFoods()));
+        foodLimitLabel.setText("Max is " + world.getMaxFoods());
+        crossoverText.setText(String.valueOf(world.getCrossoverProbability()));
+        mutationText.setText(String.valueOf(world.getMutationProbability()));
+        seedText.setText(String.valueOf(world.getSeed()));
 
         pack();
     }// </editor-fold>//GEN-END:initComponents
@@ -178,14 +192,16 @@ public class OptionsDialog extends javax.swing.JDialog {
         boolean error = false;
         int popSize = 0;
         int foodAmount = 0;
+        long seed = 0;
+        World world = parentFrame.getEnvironment().getWorld();
 
         try {
            popSize = Integer.parseInt(popSizeText.getText());
 
-           if (popSize > Environment.MAX_FEEDERS) {
+           if (popSize > world.getMaxFeeders()) {
                error = true;
                errorMessage += "<p>The maximum population must not exceed " +
-                       Environment.MAX_FEEDERS + ".</p>";
+                       world.getMaxFeeders() + ".</p>";
            }
         }
         catch (Exception ex) {
@@ -196,27 +212,37 @@ public class OptionsDialog extends javax.swing.JDialog {
         try {
             foodAmount = Integer.parseInt(foodAmountText.getText());
 
-           if (foodAmount > Environment.MAX_FOOD) {
+           if (foodAmount > world.getMaxFoods()) {
                error = true;
                errorMessage += "<p>The maximum food amount must not exceed " +
-                       Environment.MAX_FOOD + ".</p>";
+                       world.getMaxFoods() + ".</p>";
            }
         } catch (Exception ex) {
             error = true;
             errorMessage += "<p>Food Amount must be an integer.</p>";
         }
 
+        try {
+            seed = Long.parseLong(seedText.getText().trim());
+        } catch (Exception ex) {
+            error = true;
+            errorMessage += "<p>Random Seed must be an integer.</p>";
+        }
+
 
         errorMessage += "</html>";
 
         if (!error) {
             errorLabel.setText("");
-            Environment.setNumFeeders(Integer.parseInt(popSizeText.getText()));
-            Environment.setNumFoods(Integer.parseInt(foodAmountText.getText()));
-            GeneticEngine.setCrossoverProbability(
+            world.setNumFeeders(Integer.parseInt(popSizeText.getText()));
+            world.setNumFoods(Integer.parseInt(foodAmountText.getText()));
+            world.setCrossoverProbability(
                     Double.valueOf(crossoverText.getText()));
-            GeneticEngine.setMutationProbability(
+            world.setMutationProbability(
                     Double.valueOf(mutationText.getText()));
+            // setting the seed again (even to the same value) replays the
+            // run from the start
+            world.setSeed(seed);
 
             parentFrame.getEnvironment().resetEnvironment();
            
@@ -261,6 +287,8 @@ public class OptionsDialog extends javax.swing.JDialog {
     private javax.swing.JLabel popLimitLabel;
     private javax.swing.JLabel popSizeLabel;
     private javax.swing.JTextField popSizeText;
+    private javax.swing.JLabel seedLabel;
+    private javax.swing.JTextField seedText;
     // End of variables declaration//GEN-END:variables
     private EnvironmentFrame parentFrame;
 }
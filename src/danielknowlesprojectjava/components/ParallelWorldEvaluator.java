@@ -0,0 +1,162 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.geneticAlgorithm.FitnessEvaluator;
+import danielknowlesprojectjava.geneticAlgorithm.Genotype;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Scores a population by splitting it into batches and running each batch
+ * for a generation in a private world of its own, several batches at a time.
+ * The batches don't share anything, so a generation is scored about as many
+ * times faster as there are cores to run it on.
+ *
+ * Every batch's world is a copy of a template world's size, food and
+ * generation length and is seeded with the same seed, so every batch
+ * competes over the same food layout. A new seed is drawn from the template
+ * world's own random number stream each generation.
+ * The food is scaled down with the batch, so a feeder is as crowded as it
+ * would be with the whole population in the template world. Feeders only
+ * compete with their own batch, though, so the scores are close to, but not
+ * the same as, scores from the shared world.
+ *
+ * The batches depend only on the population and the batch size, never on
+ * the number of threads, so a seeded run gives the same results with any
+ * number of threads.
+ */
+public class ParallelWorldEvaluator implements FitnessEvaluator {
+    // the number of genotypes in each batch by default
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    // the world each batch's world copies its options from
+    private final World template;
+    // the largest number of genotypes in a batch
+    private final int batchSize;
+    // runs the batches
+    private final ExecutorService executor;
+    // each thread's private world, reused from batch to batch
+    private final ThreadLocal<World> worlds = new ThreadLocal<World>() {
+        @Override
+        protected World initialValue() {
+            World world = new World();
+            world.setThreadCount(1);
+            world.setMaxFeeders(Integer.MAX_VALUE);
+            world.setMaxFoods(Integer.MAX_VALUE);
+            return world;
+        }
+    };
+
+    /**
+     * A batch of the population, run in the calling thread's private world.
+     */
+    private class Batch implements Callable<Void> {
+        private final List<Genotype> genotypes;
+        private final int numFoods;
+        private final long seed;
+
+        Batch(List<Genotype> genotypes, int numFoods, long seed) {
+            this.genotypes = genotypes;
+            this.numFoods = numFoods;
+            this.seed = seed;
+        }
+
+        public Void call() {
+            World world = worlds.get();
+            copyTemplate(world, numFoods);
+            world.evaluate(genotypes, seed);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a new parallel world evaluator.
+     * @param template the world whose size, food, generation length and mode
+     * each batch's world copies. Its random number stream supplies the
+     * seeds.
+     * @param batchSize the largest number of genotypes in a batch
+     * @param threadCount the number of batches to run at once
+     */
+    public ParallelWorldEvaluator(World template, int batchSize,
+            int threadCount) {
+        this.template = template;
+        this.batchSize = Math.max(1, batchSize);
+        executor = Executors.newFixedThreadPool(Math.max(1, threadCount),
+                new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                // don't keep the application running just for the workers
+                Thread t = new Thread(r, "fitness evaluator");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Gives a batch's world the template world's size, generation length and
+     * mode.
+     * @param world the batch's world
+     * @param numFoods the number of food objects for the batch
+     */
+    void copyTemplate(World world, int numFoods) {
+        world.setBounds(template.getMinX(), template.getMinY(),
+                template.getWidth(), template.getHeight());
+        world.setNumFoods(numFoods);
+        world.setNumGenLoops(template.getNumGenLoops());
+        world.setEventDriven(template.isEventDriven());
+    }
+
+    /**
+     * Gets the largest number of genotypes in a batch.
+     * @return the batch size
+     */
+    public int getBatchSize() { return batchSize; }
+
+    public void evaluate(List<Genotype> population) {
+        int n = population.size();
+        if (n == 0) return;
+
+        // split the population as evenly as possible. every batch gets the
+        // same food, as much as the template world has for each of its
+        // feeders times the size of the largest batch. the list may be
+        // smaller or larger than the template's population (a fitness cache
+        // hands over just what it needs), so the list's size doesn't matter.
+        int batches = (n + batchSize - 1) / batchSize;
+        int largest = (n + batches - 1) / batches;
+        int numFoods = (int) Math.round(template.getNumFoods() *
+                (double) largest / Math.max(1, template.getNumFeeders()));
+        long seed = template.getRandom().nextLong();
+
+        ArrayList<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (int b = 0; b < batches; b++) {
+            int from = (int) ((long) n * b / batches);
+            int to = (int) ((long) n * (b + 1) / batches);
+            results.add(executor.submit(new Batch(
+                    population.subList(from, to), numFoods, seed)));
+        }
+
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fitness evaluation interrupted",
+                    ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Fitness evaluation failed",
+                    ex.getCause());
+        }
+    }
+
+    /**
+     * Stops the worker threads. The evaluator can't be used after this.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
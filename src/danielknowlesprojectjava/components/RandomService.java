@@ -0,0 +1,79 @@
+package danielknowlesprojectjava.components;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hands out independent streams of random numbers that all come from one
+ * master seed. Each world, genetic engine and feeder gets a stream of its
+ * own, so no generator is ever shared between threads and a run can be
+ * repeated exactly by using the same master seed again.
+ *
+ * The streams are split off in the order they are asked for, so a service
+ * should only be used from the thread that creates the world's objects.
+ */
+public class RandomService {
+    // the seed every stream comes from
+    private final long masterSeed;
+    // the generator the streams are split from
+    private SplittableRandom root;
+
+    /**
+     * Creates a new random service with a master seed picked at random.
+     */
+    public RandomService() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a new random service.
+     * @param masterSeed the seed every stream comes from
+     */
+    public RandomService(long masterSeed) {
+        this.masterSeed = masterSeed;
+        root = new SplittableRandom(masterSeed);
+    }
+
+    /**
+     * Gets the seed every stream comes from.
+     * @return the master seed
+     */
+    public long getMasterSeed() { return masterSeed; }
+
+    /**
+     * Gets a new stream of random numbers, independent of every other stream
+     * handed out by the service.
+     * @return a new random number generator
+     */
+    public SplittableRandom newStream() {
+        return root.split();
+    }
+
+    /**
+     * Starts the service over from a new seed, so that the streams it hands
+     * out from now on depend only on that seed. Streams already handed out
+     * carry on as they were. The master seed isn't changed.
+     * @param seed the seed to start over from
+     */
+    void restart(long seed) {
+        root = new SplittableRandom(seed);
+    }
+
+    /**
+     * Gives a reusable stream a new seed, so that it is as independent of
+     * every other stream as a new one would be.
+     * @param stream the stream to reseed
+     */
+    void reseed(RandomStream stream) {
+        stream.setSeed(root.nextLong(), root.nextLong());
+    }
+
+    /**
+     * Gets a new random service with a master seed drawn from this one. Use
+     * this to give each of several worlds its own service while still being
+     * able to repeat the whole experiment from one seed.
+     * @return a new random service
+     */
+    public RandomService newService() {
+        return new RandomService(root.nextLong());
+    }
+}
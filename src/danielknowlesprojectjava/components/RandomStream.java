@@ -0,0 +1,57 @@
+package danielknowlesprojectjava.components;
+
+/**
+ * A stream of random numbers that can be given a new seed in place. It uses
+ * the same SplitMix64 algorithm as java.util.SplittableRandom, but a pooled
+ * feeder can be handed a fresh, independent stream for each generation
+ * without a new generator being allocated.
+ */
+final class RandomStream {
+    // the current seed
+    private long seed;
+    // the odd number added to the seed for each value
+    private long gamma;
+
+    /**
+     * Gives the stream a new seed.
+     * @param seed the new seed
+     * @param gamma a value the stream's step size is made from
+     */
+    void setSeed(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = mixGamma(gamma);
+    }
+
+    /**
+     * Gets a random number between zero (inclusive) and one (exclusive).
+     * @return the next random number
+     */
+    double nextDouble() {
+        return (mix64(seed += gamma) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Scrambles the bits of a seed into a 64 bit random value.
+     * @param z the seed
+     * @return the random value
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Turns a value into a step size. The step is always odd, and steps with
+     * too few bit changes are avoided because they give poor sequences.
+     * @param z the value
+     * @return the step size
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
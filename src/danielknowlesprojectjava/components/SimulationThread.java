@@ -0,0 +1,131 @@
+package danielknowlesprojectjava.components;
+
+/**
+ * The thread that runs the simulation loop. Each pass through the loop
+ * advances the environment by one tick at a fixed rate (or as fast as
+ * possible) and asks the environment to repaint itself. Rendering happens on
+ * the event dispatch thread and only draws whatever state the last tick left
+ * behind.
+ */
+class SimulationThread extends Thread {
+    // the environment being simulated
+    private final Environment environment;
+    // the number of ticks to run each second (zero means as fast as possible)
+    private volatile int ticksPerSecond;
+    // tells the thread to exit the simulation loop
+    private volatile boolean stopped = false;
+    // the minimum amount of time between repaint requests (about 60 fps)
+    private static final long REPAINT_INTERVAL = 1000000000L / 60;
+    // the most ticks the loop will run back to back to catch up after a stall
+    private static final int MAX_CATCH_UP_TICKS = 10;
+    // how long to wait (in milliseconds) before checking a paused environment
+    private static final long PAUSED_WAIT = 20;
+
+    /**
+     * Creates a new simulation thread.
+     * @param environment the environment to simulate
+     * @param ticksPerSecond the number of ticks to run each second, or zero to
+     * run as fast as possible
+     */
+    SimulationThread(Environment environment, int ticksPerSecond) {
+        super("Simulation");
+
+        this.environment = environment;
+        this.ticksPerSecond = ticksPerSecond;
+        // don't keep the application alive once the frame is closed
+        setDaemon(true);
+    }
+
+    /**
+     * Gets the number of ticks the thread runs each second.
+     * @return the tick rate, or zero if running as fast as possible
+     */
+    int getTicksPerSecond() { return ticksPerSecond; }
+
+    /**
+     * Sets the number of ticks the thread runs each second.
+     * @param value the tick rate, or zero to run as fast as possible
+     */
+    void setTicksPerSecond(int value) { ticksPerSecond = value; }
+
+    /**
+     * Tells the thread to stop after the current tick.
+     */
+    void stopSimulation() {
+        stopped = true;
+        interrupt();
+    }
+
+    /**
+     * Runs the simulation loop.
+     */
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        long lastRepaint = 0;
+
+        while (!stopped) {
+            int rate = ticksPerSecond;
+
+            if (environment.isFastForwarding()) {
+                // run flat out in batches and only repaint the progress bar
+                if (environment.fastForwardStep()) {
+                    environment.repaint();
+                } else {
+                    try {
+                        Thread.sleep(PAUSED_WAIT);
+                    } catch (InterruptedException ex) {
+                        // woken up to stop
+                    }
+                }
+                // pick up the normal schedule from now once it's finished
+                nextTick = System.nanoTime();
+                continue;
+            }
+
+            // advance the world by one tick
+            if (!environment.step()) {
+                // the environment is paused, check back in a little while
+                try {
+                    Thread.sleep(PAUSED_WAIT);
+                } catch (InterruptedException ex) {
+                    // woken up to stop
+                }
+                nextTick = System.nanoTime();
+                continue;
+            }
+
+            // ask the event dispatch thread to render the new state. repaint()
+            // is safe to call from any thread, but there is no point in
+            // asking more often than the screen can show it.
+            long now = System.nanoTime();
+            if (now - lastRepaint >= REPAINT_INTERVAL) {
+                environment.repaint();
+                lastRepaint = now;
+            }
+
+            if (rate <= 0) {
+                // running flat out, just keep the schedule current in case
+                // the rate is changed later
+                nextTick = now;
+                continue;
+            }
+
+            // wait until the next tick is due
+            long period = 1000000000L / rate;
+            nextTick += period;
+            long wait = nextTick - now;
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                } catch (InterruptedException ex) {
+                    // woken up to stop or to pick up a new rate
+                }
+            } else if (-wait > period * MAX_CATCH_UP_TICKS) {
+                // fell too far behind (or the rate changed), don't try to
+                // run a burst of ticks to make up for it
+                nextTick = now;
+            }
+        }
+    }
+}
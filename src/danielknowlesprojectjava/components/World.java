@@ -0,0 +1,949 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.collections.FeederCollection;
+import danielknowlesprojectjava.collections.FoodCollection;
+import danielknowlesprojectjava.collections.FoodGrid;
+import danielknowlesprojectjava.geneticAlgorithm.FitnessEvaluator;
+import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
+import danielknowlesprojectjava.geneticAlgorithm.Genome;
+import danielknowlesprojectjava.geneticAlgorithm.Genotype;
+import danielknowlesprojectjava.geneticAlgorithm.RouletteSelection;
+import danielknowlesprojectjava.geneticAlgorithm.Selection;
+import danielknowlesprojectjava.statistics.GenerationRecord;
+import danielknowlesprojectjava.statistics.StatisticsSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The simulated world that the feeders and food live in. The world knows
+ * nothing about rendering, so it can be run inside the environment frame or
+ * on its own from the command line.
+ *
+ * Everything a world needs (its bounds, options, random number generators,
+ * feeders, food and genetic engine) belongs to the world object, so any
+ * number of worlds can run side by side in one JVM, each on its own thread.
+ *
+ * The perception, steering and movement phases of each tick are split into
+ * ranges of feeders and run on a fork/join pool. During those phases a
+ * feeder only changes its own values, and food is only eaten in a separate
+ * pass that goes through the feeders in index order. A seeded run therefore
+ * gives the same results no matter how many threads it uses.
+ *
+ * A world can also be made event driven, in which case an event scheduler
+ * skips each feeder straight from one thing that happens to it to the next
+ * instead of running every tick. This is much faster when food is sparse;
+ * see EventScheduler for how closely it matches the tick by tick results.
+ *
+ * Every random number stream is started over from a new seed at the start
+ * of each generation, so a generation depends only on its population and
+ * that seed. A checkpoint taken between generations therefore only has to
+ * hold those and the fitness history to carry on exactly where it left off.
+ */
+public class World {
+    // the bounds of the world
+    private int width;
+    private int height;
+    private int x;
+    private int y;
+    // the default limits on the number of feeders and food. the window
+    // can't draw many more than this at a usable frame rate, but a world run
+    // from the command line can raise them as far as memory allows.
+    public static final int DEFAULT_MAX_FEEDERS = 500;
+    public static final int DEFAULT_MAX_FOOD = 500;
+    private int maxFeeders = DEFAULT_MAX_FEEDERS;
+    private int maxFoods = DEFAULT_MAX_FOOD;
+    // the default number of feeders and food
+    public static final int DEFAULT_NUM_FEEDERS = 20;
+    public static final int DEFAULT_NUM_FOODS = 250;
+    private int numFeeders = DEFAULT_NUM_FEEDERS;
+    private int numFoods = DEFAULT_NUM_FOODS;
+    // hands out the random number streams used by the world
+    private RandomService randomService;
+    // the world's own random number stream
+    private SplittableRandom rnd;
+    // the seed the current generation's random number streams started from
+    private long generationSeed;
+    // the genetic algorithm's rates, used for each new genetic engine
+    private double crossoverProbability =
+            GeneticEngine.DEFAULT_CROSSOVER_PROBABILITY;
+    private double mutationProbability =
+            GeneticEngine.DEFAULT_MUTATION_PROBABILITY;
+    // the selection operator used by each new genetic engine
+    private Selection selection = new RouletteSelection();
+    // the most entries each fitness history keeps (0 for no limit)
+    private int historyLimit = 0;
+    // scores each generation instead of the world's own feeders (null to
+    // use the feeders)
+    private FitnessEvaluator fitnessEvaluator;
+    // the feeders and food in the world
+    private final FeederCollection feeders = new FeederCollection(this);
+    private final FoodCollection foods = new FoodCollection(this);
+    // the number of feeders created since the world was last cleared, used
+    // to give each feeder an ID
+    private int feederCount = 0;
+    // the feeder count when the current generation started
+    private int generationFeederCount = 0;
+    // the default number of iterations through the game loop to run through
+    //  before advancing to the next generation
+    public static final int DEFAULT_GEN_LOOPS = 7300; // 365 * 20
+    // the length of the chromosome used for each feeder
+    public static final int CHROMOSOME_LENGTH = 12;
+    // The genetic engine that will evaluate and evolve the feeders
+    private GeneticEngine genE;
+    // the number of iterations through the game loop to run through before
+    //  advancing to the next generation
+    private int numGenLoops = DEFAULT_GEN_LOOPS;
+    private int genLoopCount = 0;
+    // gets told every time a generation is finished
+    private GenerationListener generationListener;
+    // gets the statistics of every finished generation (null for none)
+    private StatisticsSink statisticsSink;
+    // the wall time spent running the current generation's ticks, in
+    // nanoseconds
+    private long simulationTime;
+    // the smallest number of feeders worth handing to another thread
+    private static final int MIN_RANGE = 64;
+    // the number of threads that run the tick phases
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    // runs the tick phases (null when running on a single thread)
+    private ForkJoinPool pool;
+    // runs the feeders from event to event (null when running every tick)
+    private EventScheduler events;
+    // reused by each thread to hold the food near each feeder
+    private final ThreadLocal<ArrayList<Food>> nearbyFood =
+            new ThreadLocal<ArrayList<Food>>() {
+        @Override
+        protected ArrayList<Food> initialValue() {
+            return new ArrayList<Food>();
+        }
+    };
+
+    /**
+     * One phase of a tick, run over a range of feeders. A phase may only
+     * change the values of the feeders in its range, so that different
+     * ranges can run at the same time.
+     */
+    private static abstract class Phase {
+        /**
+         * Runs the phase over a range of feeders.
+         * @param fs the feeder state
+         * @param from the index of the first feeder
+         * @param to one past the index of the last feeder
+         */
+        abstract void run(FeederState fs, int from, int to);
+    }
+
+    /**
+     * Splits a phase in half until the ranges are small enough, then runs
+     * each range.
+     */
+    private static class PhaseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Phase phase;
+        private final FeederState fs;
+        private final int from;
+        private final int to;
+        private final int rangeSize;
+
+        PhaseTask(Phase phase, FeederState fs, int from, int to,
+                int rangeSize) {
+            this.phase = phase;
+            this.fs = fs;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rangeSize) {
+                phase.run(fs, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PhaseTask(phase, fs, from, middle, rangeSize),
+                          new PhaseTask(phase, fs, middle, to, rangeSize));
+            }
+        }
+    }
+
+    // lets each feeder notice the food close enough for it to see
+    private final Phase perceivePhase = new Phase() {
+        void run(FeederState fs, int from, int to) {
+            // the grid only holds active food, and nothing is eaten until
+            // every feeder has perceived and steered
+            FoodGrid grid = foods.getGrid();
+            ArrayList<Food> nearby = nearbyFood.get();
+
+            for (int i = from; i < to; i++) {
+                Feeder fr = fs.feeders[i];
+                // a blind feeder can still bump into food it's about to walk
+                // on
+                double reach = Math.max(fs.eyesight[i], fs.speed[i]);
+                grid.getNearbyFood(fs.x[i], fs.y[i], reach, nearby);
+
+                for (int j = 0; j < nearby.size(); j++) {
+                    Food fd = nearby.get(j);
+                    // if the feeder "sees" the food, react to it.
+                    if (fd.isPerceived(fr)) {
+                        fr.reactTo(fd);
+                    }
+                }
+            }
+        }
+    };
+
+    // scores each genotype by the food eaten by the feeder made from it.
+    // each feeder was created from the genotype at the same index.
+    private final FitnessEvaluator feederFitness = new FitnessEvaluator() {
+        public void evaluate(List<Genotype> population) {
+            ArrayList<Feeder> list = feeders.getFeeders();
+            for (int i = 0; i < list.size(); i++) {
+                population.get(i).setRawFitness(list.get(i).GetFitness());
+            }
+        }
+    };
+
+    // points each feeder at its closest food, claiming any it has reached
+    private final Phase steerPhase = new Phase() {
+        void run(FeederState fs, int from, int to) {
+            for (int i = from; i < to; i++) {
+                fs.feeders[i].steer();
+            }
+        }
+    };
+
+    // moves each feeder and works out where it will look next tick
+    private final Phase movePhase = new Phase() {
+        void run(FeederState fs, int from, int to) {
+            fs.move(from, to);
+
+            // put back any that wandered out of bounds
+            double minX = getMinX();
+            double minY = getMinY();
+            double maxX = getMaxX();
+            double maxY = getMaxY();
+            for (int i = from; i < to; i++) {
+                if (fs.isOutOfBounds(i, minX, minY, maxX, maxY))
+                    fs.feeders[i].adjustLocation();
+                fs.feeders[i].calcPerceptionPoints();
+            }
+        }
+    };
+
+    /**
+     * Creates a new world with default values and a random master seed. Call
+     * initialize() before stepping it.
+     */
+    public World() {
+        this(new RandomService());
+    }
+
+    /**
+     * Creates a new world with default values. Call initialize() before
+     * stepping it.
+     * @param randomService hands out the world's random number streams
+     */
+    public World(RandomService randomService) {
+        setRandomService(randomService);
+    }
+
+    /**
+     * Sets the bounds of the world.
+     * @param x the lowest x coordinate in the world
+     * @param y the lowest y coordinate in the world
+     * @param width the width of the world
+     * @param height the height of the world
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Gets the width of the world.
+     * @return the width of the world
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Gets the height of the world.
+     * @return the height of the world
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * Gets the lowest x coordinate objects are allowed to have in the
+     * world.
+     * @return the minimum x coordinate in the world
+     */
+    public int getMinX() { return x; }
+    /**
+     * Gets the highest x coordinate objects are allowed to have in the
+     * world.
+     * @return the maximum x coordinate in the world
+     */
+    public int getMaxX() {
+        return x + width - 15;
+    }
+
+    /**
+     * Gets the lowest y coordinate objects are allowed to have in the
+     * world.
+     * @return the minimum y coordinate in the world
+     */
+    public int getMinY() { return y; }
+    /**
+     * Gets the highest y coordinate objects are allowed to have in the
+     * world.
+     * @return the maximum y coordinate in the world
+     */
+    public int getMaxY() { return y + height - 15; }
+
+    /**
+     * Sets the number of feeders in the world.
+     * @param n the number of feeders in the world
+     */
+    public void setNumFeeders(int n) {
+        if (n < maxFeeders) numFeeders = n;
+        else numFeeders = maxFeeders;
+    }
+    /**
+     * Gets the number of feeders in the world.
+     * @return the number of feeders in the world
+     */
+    public int getNumFeeders() { return numFeeders;}
+    /**
+     * Sets the number of food objects in the world.
+     * @param n the number of food objects in the world
+     */
+    public void setNumFoods(int n) {
+        if (n < maxFoods) numFoods = n;
+        else numFoods = maxFoods;
+    }
+    /**
+     * Gets the number of food objects in the world.
+     * @return the number of food objects in the world
+     */
+    public int getNumFoods() { return numFoods; }
+
+    /**
+     * Gets the most feeders the world can hold.
+     * @return the maximum number of feeders
+     */
+    public int getMaxFeeders() { return maxFeeders; }
+
+    /**
+     * Sets the most feeders the world can hold. The number of feeders is
+     * lowered to match if it is over the new limit.
+     * @param value the maximum number of feeders
+     */
+    public void setMaxFeeders(int value) {
+        maxFeeders = Math.max(1, value);
+        setNumFeeders(numFeeders);
+    }
+
+    /**
+     * Gets the most food objects the world can hold.
+     * @return the maximum number of food objects
+     */
+    public int getMaxFoods() { return maxFoods; }
+
+    /**
+     * Sets the most food objects the world can hold. The number of food
+     * objects is lowered to match if it is over the new limit.
+     * @param value the maximum number of food objects
+     */
+    public void setMaxFoods(int value) {
+        maxFoods = Math.max(0, value);
+        setNumFoods(numFoods);
+    }
+
+    /**
+     * Gets the probability of crossover used by new genetic engines.
+     * @return the probability of crossover
+     */
+    public double getCrossoverProbability() { return crossoverProbability; }
+
+    /**
+     * Sets the probability of crossover used by new genetic engines.
+     * @param value the probability of crossover
+     */
+    public void setCrossoverProbability(double value) {
+        crossoverProbability = value;
+    }
+
+    /**
+     * Gets the probability of mutation used by new genetic engines.
+     * @return the probability of mutation
+     */
+    public double getMutationProbability() { return mutationProbability; }
+
+    /**
+     * Sets the probability of mutation used by new genetic engines.
+     * @param value the probability of mutation
+     */
+    public void setMutationProbability(double value) {
+        mutationProbability = value;
+    }
+
+    /**
+     * Gets the selection operator that picks the parents of each generation.
+     * @return the selection operator
+     */
+    public Selection getSelection() { return selection; }
+
+    /**
+     * Sets the selection operator that picks the parents of each generation,
+     * for the current genetic engine and any new one.
+     * @param value the selection operator
+     */
+    public void setSelection(Selection value) {
+        selection = value;
+        if (genE != null)
+            genE.setSelection(value);
+    }
+
+    /**
+     * Gets the most entries the genetic engine's fitness histories keep.
+     * @return the history limit, or zero if there isn't one
+     */
+    public int getHistoryLimit() { return historyLimit; }
+
+    /**
+     * Sets the most entries the genetic engine's fitness histories keep,
+     * for the current genetic engine and any new one. A world whose
+     * histories have been merged to fit can't be checkpointed.
+     * @param value the history limit, or zero for no limit
+     */
+    public void setHistoryLimit(int value) {
+        historyLimit = Math.max(0, value);
+        if (genE != null)
+            genE.setHistoryLimit(historyLimit);
+    }
+
+    /**
+     * Gets the evaluator that scores each generation in place of the world's
+     * own feeders.
+     * @return the fitness evaluator, or null if the feeders are used
+     */
+    public FitnessEvaluator getFitnessEvaluator() { return fitnessEvaluator; }
+
+    /**
+     * Sets the evaluator that scores each generation in place of the world's
+     * own feeders. While one is set, runGeneration() doesn't simulate the
+     * world at all; the world only holds each new generation's feeders so
+     * they can be looked at.
+     * @param value the fitness evaluator, or null to score the feeders
+     */
+    public void setFitnessEvaluator(FitnessEvaluator value) {
+        fitnessEvaluator = value;
+        if (genE != null)
+            genE.setFitnessEvaluator(value != null ? value : feederFitness);
+    }
+
+    /**
+     * Sets the master seed that every random number in the world comes from.
+     * A world initialized after this with the same seed and options produces
+     * exactly the same fitness history.
+     * @param seed the master seed
+     */
+    public void setSeed(long seed) {
+        setRandomService(new RandomService(seed));
+    }
+
+    /**
+     * Gets the master seed that every random number in the world comes from.
+     * @return the master seed
+     */
+    public long getSeed() { return randomService.getMasterSeed(); }
+
+    /**
+     * Sets the service that hands out the world's random number streams.
+     * @param value the random service
+     */
+    public void setRandomService(RandomService value) {
+        randomService = value;
+        rnd = randomService.newStream();
+    }
+
+    /**
+     * Gets the service that hands out the world's random number streams.
+     * @return the random service
+     */
+    public RandomService getRandomService() { return randomService; }
+
+    /**
+     * Gets the world's own random number stream. Only use it from the thread
+     * that steps the world.
+     * @return the random number generator
+     */
+    public SplittableRandom getRandom() { return rnd; }
+
+    /**
+     * Gets the world's feeders.
+     * @return the feeder collection
+     */
+    public FeederCollection getFeederCollection() { return feeders; }
+
+    /**
+     * Gets the world's food.
+     * @return the food collection
+     */
+    public FoodCollection getFoodCollection() { return foods; }
+
+    /**
+     * Gets the next feeder ID.
+     * @return an ID that no other feeder in the world has
+     */
+    int nextFeederID() { return ++feederCount; }
+
+    /**
+     * Gets the seed the current generation's random number streams started
+     * from.
+     * @return the generation seed
+     */
+    long getGenerationSeed() { return generationSeed; }
+
+    /**
+     * Gets the feeder count when the current generation started.
+     * @return the number of feeders created before this generation's
+     */
+    int getGenerationFeederCount() { return generationFeederCount; }
+
+    /**
+     * Gets the number of threads that run each tick.
+     * @return the number of threads
+     */
+    public int getThreadCount() { return threadCount; }
+
+    /**
+     * Sets the number of threads that run each tick. A seeded world gives the
+     * same results whatever this is set to.
+     * @param value the number of threads (one or less runs every phase on
+     * the calling thread)
+     */
+    public void setThreadCount(int value) {
+        threadCount = Math.max(1, value);
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Runs a phase over every feeder, splitting the feeders across the pool
+     * when there are enough of them.
+     * @param phase the phase to run
+     * @param fs the feeder state
+     */
+    private void runPhase(Phase phase, FeederState fs) {
+        int n = fs.size();
+
+        if (threadCount <= 1 || n <= MIN_RANGE) {
+            phase.run(fs, 0, n);
+            return;
+        }
+
+        if (pool == null)
+            pool = new ForkJoinPool(threadCount);
+        // a few ranges per thread lets the pool even out uneven ranges
+        int rangeSize = Math.max(MIN_RANGE, n / (threadCount * 4));
+        pool.invoke(new PhaseTask(phase, fs, 0, n, rangeSize));
+    }
+
+    /**
+     * Determines if the world is event driven.
+     * @return true if the world skips from event to event, false if it runs
+     * every tick
+     */
+    public boolean isEventDriven() { return events != null; }
+
+    /**
+     * Sets whether the world is event driven. This can be changed at any
+     * time, including in the middle of a generation. Before the world is
+     * initialized there is no generation to schedule, so the scheduler is
+     * started with the first one.
+     * @param value true to skip from event to event, false to run every tick
+     */
+    public void setEventDriven(boolean value) {
+        if (value == (events != null)) return;
+
+        if (value) {
+            events = new EventScheduler(this);
+            if (genE != null)
+                events.start(genLoopCount);
+        } else {
+            if (genE != null)
+                events.syncAll(genLoopCount);
+            events = null;
+        }
+    }
+
+    /**
+     * Gets the genetic engine used by the world.
+     * @return the genetic engine used by the world
+     */
+    public GeneticEngine getGeneticEngine() { return genE; }
+
+    /**
+     * Gets the number of game loops in each generation.
+     * @return the number of game loops in each generation
+     */
+    public int getNumGenLoops() { return numGenLoops; }
+
+    /**
+     * Sets the number of game loops in each generation.
+     * @param value the number of game loops in each generation
+     */
+    public void setNumGenLoops(int value) { numGenLoops = value; }
+
+    /**
+     * Gets the number of game loops that have run in the current generation.
+     * @return the number of game loops run so far in this generation
+     */
+    public int getGenLoopCount() { return genLoopCount; }
+
+    /**
+     * Gets the number of generations that have been completed.
+     * @return the number of completed generations
+     */
+    public int getGenerationCount() {
+        return genE == null ? 0 : genE.getAverageFitnesses().getCount();
+    }
+
+    /**
+     * Sets the listener that is told when a generation is finished.
+     * @param listener the generation listener (may be null)
+     */
+    public void setGenerationListener(GenerationListener listener) {
+        generationListener = listener;
+    }
+
+    /**
+     * Gets the sink that gets the statistics of every finished generation.
+     * @return the statistics sink, or null if there isn't one
+     */
+    public StatisticsSink getStatisticsSink() { return statisticsSink; }
+
+    /**
+     * Sets the sink that gets the statistics of every finished generation.
+     * Working out the statistics takes a pass over the population, so it is
+     * only done while there is a sink.
+     * @param value the statistics sink (may be null)
+     */
+    public void setStatisticsSink(StatisticsSink value) {
+        statisticsSink = value;
+    }
+
+    /**
+     * Runs every phase of one tick over all of the feeders.
+     */
+    private void tick() {
+        FeederState fs = feeders.getState();
+        int n = fs.size();
+
+        runPhase(perceivePhase, fs);
+        // the observer index is shared, so the food each feeder has just
+        // observed is added to it on this thread, before anything is eaten
+        for (int i = 0; i < n; i++) {
+            if (fs.unregistered[i] > 0)
+                fs.feeders[i].registerObserved();
+        }
+        runPhase(steerPhase, fs);
+        // eat the claimed food in index order, so that when two feeders
+        // reach the same food in one tick the lower index always gets it
+        for (int i = 0; i < n; i++) {
+            fs.feeders[i].resolveClaim();
+        }
+        runPhase(movePhase, fs);
+    }
+
+    /**
+     * Advances the world by one tick.
+     */
+    public void step() {
+        long start = System.nanoTime();
+        if (events != null) {
+            events.runTo(genLoopCount + 1);
+            // put every feeder where it would be, so the world can be drawn
+            events.syncAll(genLoopCount + 1);
+        } else {
+            tick();
+        }
+        simulationTime += System.nanoTime() - start;
+
+        // if the generation loop count is the same as the number of generation
+        //  loops until the next generation, advance the generation
+        if (++genLoopCount == numGenLoops) {
+            advanceTheGeneration();
+        }
+    }
+
+    /**
+     * Runs the rest of the current generation.
+     */
+    public void runGeneration() {
+        int generation = getGenerationCount();
+
+        // the evaluator does the simulating, so there's nothing to run here
+        if (fitnessEvaluator != null) {
+            advanceTheGeneration();
+            return;
+        }
+
+        // nothing happens between events, so jump straight to the last tick
+        if (events != null && genLoopCount < numGenLoops - 1) {
+            long start = System.nanoTime();
+            events.runTo(numGenLoops - 1);
+            genLoopCount = numGenLoops - 1;
+            simulationTime += System.nanoTime() - start;
+        }
+
+        while (getGenerationCount() == generation) {
+            step();
+        }
+    }
+
+    /**
+     * Creates random food objects and place them into the food collection.
+     */
+    private void createFoods() {
+        foods.clearFoods();
+
+        for (int i = 0; i < numFoods; i++) {
+            foods.addFood();
+        }
+
+        // food doesn't move, so index it once for the whole generation. a
+        // cell as big as the best eyesight means a feeder never has to look
+        // past the cells next to its own.
+        foods.buildGrid(Feeder.getMaxEffectiveEyesight());
+    }
+
+    /**
+     * Creates feeders from the genetic engine's population and adds them to
+     * the feeder collection.
+     */
+    private void createFeeders() {
+        feeders.clearFeeders();
+
+        for (Genotype g : genE.getPopulation()) {
+            feeders.addFeeder(g.getChromosome());
+        }
+    }
+
+    /**
+     * Initializes the genetic engine with default values.
+     */
+    private void initializeGenE() {
+        // create a new genetic engine
+        genE = new GeneticEngine(numFeeders, crossoverProbability,
+                mutationProbability, Integer.MAX_VALUE, CHROMOSOME_LENGTH,
+                randomService.newStream());
+        genE.setSelection(selection);
+        genE.setHistoryLimit(historyLimit);
+        genE.setFitnessEvaluator(fitnessEvaluator != null ? fitnessEvaluator :
+                feederFitness);
+    }
+
+    /**
+     * Starts every random number stream the world, its genetic engine and
+     * its feeders use over from a seed.
+     * @param seed the seed for the generation
+     */
+    private void startGeneration(long seed) {
+        generationSeed = seed;
+        generationFeederCount = feederCount;
+        simulationTime = 0;
+        randomService.restart(seed);
+        rnd = randomService.newStream();
+        genE.setRandom(randomService.newStream());
+    }
+
+    /**
+     * Fills the world with the genetic engine's population and new food.
+     */
+    private void createGeneration() {
+        // create new feeders from the new population
+        createFeeders();
+        foods.clearFoods();
+        createFoods();
+        if (events != null)
+            events.start(0);
+    }
+
+    /**
+     * Scores the current generation, breeds the next one and puts it in a
+     * fresh world.
+     */
+    private void advanceTheGeneration() {
+        long simulated = simulationTime;
+        long start = System.nanoTime();
+        // score the population
+        genE.evaluatePopulation();
+        long evaluated = System.nanoTime();
+        // breeding replaces the population list, so this one stays as it was
+        ArrayList<Genotype> scored = genE.getPopulation();
+        // breed the next population
+        genE.setNextGeneration();
+        startGeneration(rnd.nextLong());
+        createGeneration();
+        // make sure we reset the loop counter before anyone is told
+        genLoopCount = 0;
+        long bred = System.nanoTime();
+
+        int genNumber = genE.getAverageFitnesses().getCount();
+        double avgFit = genE.getAverageFitnesses().getLast();
+        double highFit = genE.getHighestFitnesses().getLast();
+
+        if (statisticsSink != null)
+            statisticsSink.record(createRecord(genNumber, avgFit, highFit,
+                    scored, simulated, evaluated - start, bred - evaluated));
+
+        if (generationListener != null)
+            generationListener.generationAdvanced(genNumber, avgFit, highFit);
+    }
+
+    /**
+     * Works out the statistics of a scored generation.
+     * @param genNumber the number of the generation
+     * @param avgFit the average fitness of the generation
+     * @param highFit the highest fitness of the generation
+     * @param scored the generation's population, sorted best first
+     * @param simulated nanoseconds spent running the generation's ticks
+     * @param evaluated nanoseconds spent scoring the generation
+     * @param bred nanoseconds spent breeding the next generation
+     * @return the generation's record
+     */
+    private GenerationRecord createRecord(int genNumber, double avgFit,
+            double highFit, ArrayList<Genotype> scored, long simulated,
+            long evaluated, long bred) {
+        int n = scored.size();
+        int length = scored.get(0).getChromosome().length();
+        // the traits are decoded the same way Feeder does it, a third of
+        // the chromosome each
+        int traitLength = length / 3;
+        long speed = 0;
+        long eyesight = 0;
+        long intelligence = 0;
+        // the number of members with each bit set
+        int[] ones = new int[length];
+
+        for (Genotype g : scored) {
+            Genome chromosome = g.getChromosome();
+            speed += chromosome.getBits(0, traitLength);
+            eyesight += chromosome.getBits(traitLength, traitLength);
+            intelligence += chromosome.getBits(traitLength * 2, traitLength);
+            for (int i = 0; i < length; i++) {
+                if (chromosome.get(i)) ones[i]++;
+            }
+        }
+
+        // two different members picked at random differ at a bit with
+        // probability 2k(n - k) / (n(n - 1)), where k of them have it set
+        double diversity = 0;
+        if (n > 1 && length > 0) {
+            for (int i = 0; i < length; i++) {
+                diversity += 2.0 * ones[i] * (n - ones[i]);
+            }
+            diversity /= (double) n * (n - 1) * length;
+        }
+
+        return new GenerationRecord(genNumber, avgFit, highFit,
+                scored.get(n - 1).getRawFitness(), (double) speed / n,
+                (double) eyesight / n, (double) intelligence / n, diversity,
+                simulated, evaluated, bred);
+    }
+
+    /**
+     * Clears the world.
+     */
+    public void clear() {
+        // clear out collections
+        feeders.clearFeeders();
+        foods.clearFoods();
+        // reset the feeder counts
+        feederCount = 0;
+        genLoopCount = 0;
+    }
+
+    /**
+     * Runs one generation of a batch of genotypes in this world, on their
+     * own, and sets each one's raw fitness to the food eaten by the feeder
+     * made from it. The world's own genetic engine isn't used. The world is
+     * reseeded first, so every world with the same options given the same
+     * seed lays out exactly the same food.
+     * @param batch the genotypes to score
+     * @param seed the master seed to reseed the world with
+     */
+    public void evaluate(List<Genotype> batch, long seed) {
+        setSeed(seed);
+        feeders.clearFeeders();
+        createFoods();
+        for (Genotype g : batch) {
+            feeders.addFeeder(g.getChromosome());
+        }
+
+        if (events != null) {
+            events.start(0);
+            events.runTo(numGenLoops);
+        } else {
+            for (int i = 0; i < numGenLoops; i++) {
+                tick();
+            }
+        }
+        genLoopCount = 0;
+
+        feederFitness.evaluate(batch);
+    }
+
+    /**
+     * Initializes the world to its initial state with the current options.
+     */
+    public void initialize() {
+        // initialize feeders list
+        feeders.setFeeders(new ArrayList<Feeder>());
+        // initialize the foods list
+        foods.setFoods(new ArrayList<Food>());
+        // the first population is drawn from a seed of its own, so streams
+        // split off before now (by setting the options in another order,
+        // say) can't change it
+        randomService.restart(rnd.nextLong());
+        initializeGenE();
+        startGeneration(rnd.nextLong());
+        createGeneration();
+        genLoopCount = 0;
+    }
+
+    /**
+     * Puts the world back the way it was at the start of a generation, as
+     * saved by a checkpoint. The world's other options have to be set the
+     * way they were first.
+     * @param population the generation's population
+     * @param avgFitnesses the average fitness of each earlier generation
+     * @param highFitnesses the highest fitness of each earlier generation
+     * @param seed the generation seed
+     * @param feederCount the feeder count when the generation started
+     */
+    void resume(ArrayList<Genotype> population, double[] avgFitnesses,
+            double[] highFitnesses, long seed, int feederCount) {
+        feeders.setFeeders(new ArrayList<Feeder>());
+        foods.setFoods(new ArrayList<Food>());
+        numFeeders = population.size();
+        initializeGenE();
+        genE.setPopulation(population);
+        for (int i = 0; i < avgFitnesses.length; i++) {
+            genE.getAverageFitnesses().add(avgFitnesses[i]);
+            genE.getHighestFitnesses().add(highFitnesses[i]);
+        }
+        this.feederCount = feederCount;
+        startGeneration(seed);
+        createGeneration();
+        genLoopCount = 0;
+    }
+}
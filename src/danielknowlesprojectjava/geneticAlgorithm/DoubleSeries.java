@@ -0,0 +1,236 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of doubles, one per generation, kept in a plain double
+ * array so nothing is boxed. Adding a value is amortized constant time and
+ * the last value added is always at hand.
+ *
+ * A series can be given a limit on the number of entries it keeps. When it
+ * is full, neighbouring entries are merged in pairs, so each entry covers
+ * twice as many values as before and the series takes up half the room.
+ * How two entries are merged depends on what the series holds: an average
+ * is merged by taking the mean, a highest value by taking the larger. The
+ * number of values each entry covers is given by getStride(). Without a
+ * limit every value is kept and the stride is always one.
+ */
+public class DoubleSeries {
+
+    /**
+     * How entries are merged when a series with a limit fills up.
+     */
+    public enum Downsampling {
+        // the mean of the values an entry covers
+        MEAN,
+        // the largest of the values an entry covers
+        MAX
+    }
+
+    // the entries
+    private double[] values = new double[64];
+    // the number of entries
+    private int size = 0;
+    // how entries are merged
+    private final Downsampling downsampling;
+    // the most entries to keep (0 for no limit), always even
+    private int maxEntries = 0;
+    // the number of values each entry covers
+    private int stride = 1;
+    // the values added since the last entry was stored, when the stride is
+    // more than one: how many, their sum and their largest
+    private int pendingCount = 0;
+    private double pendingSum = 0;
+    private double pendingMax = 0;
+    // the number of values ever added and the last of them
+    private int count = 0;
+    private double last = Double.NaN;
+
+    /**
+     * Creates a new series with no limit that merges by taking the mean.
+     */
+    public DoubleSeries() {
+        this(Downsampling.MEAN);
+    }
+
+    /**
+     * Creates a new series with no limit.
+     * @param downsampling how to merge entries if a limit is set later
+     */
+    public DoubleSeries(Downsampling downsampling) {
+        this.downsampling = downsampling;
+    }
+
+    /**
+     * Adds a value to the end of the series.
+     * @param value the value to add
+     */
+    public void add(double value) {
+        last = value;
+        count++;
+        if (stride == 1) {
+            store(value);
+            return;
+        }
+
+        pendingMax = pendingCount == 0 ? value : Math.max(pendingMax, value);
+        pendingSum += value;
+        if (++pendingCount == stride) {
+            double entry = downsampling == Downsampling.MAX ? pendingMax :
+                    pendingSum / stride;
+            pendingCount = 0;
+            pendingSum = 0;
+            store(entry);
+        }
+    }
+
+    /**
+     * Stores a full entry, merging the entries first if there isn't room.
+     * @param value the entry
+     */
+    private void store(double value) {
+        if (maxEntries > 0 && size == maxEntries) {
+            halve();
+            // the entry only covers half of what an entry covers now, so
+            // it waits for the other half
+            pendingCount = stride / 2;
+            pendingSum = value * pendingCount;
+            pendingMax = value;
+            return;
+        }
+
+        if (size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    /**
+     * Merges the entries in pairs and doubles the stride. The number of
+     * entries must be even.
+     */
+    private void halve() {
+        int half = size / 2;
+        for (int i = 0; i < half; i++) {
+            double a = values[2 * i];
+            double b = values[2 * i + 1];
+            values[i] = downsampling == Downsampling.MAX ? Math.max(a, b) :
+                    (a + b) / 2;
+        }
+        size = half;
+        stride *= 2;
+    }
+
+    /**
+     * Gets an entry.
+     * @param index the index of the entry
+     * @return the entry
+     */
+    public double get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index
+                    + ", size " + size);
+        return values[index];
+    }
+
+    /**
+     * Gets the last value added, whether or not it has been merged into an
+     * entry yet.
+     * @return the last value, or NaN if the series is empty
+     */
+    public double getLast() { return last; }
+
+    /**
+     * Gets the number of entries. This is the number of values added unless
+     * the series has had to merge entries.
+     * @return the number of entries
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the number of values ever added.
+     * @return the number of values
+     */
+    public int getCount() { return count; }
+
+    /**
+     * Gets the number of values each entry covers. Entry i covers values
+     * i * stride to (i + 1) * stride - 1.
+     * @return the stride
+     */
+    public int getStride() { return stride; }
+
+    /**
+     * Copies a range of entries into an array.
+     * @param from the index of the first entry to copy
+     * @param dest the array to copy to
+     * @param offset where in the array to put the first entry
+     * @param length the number of entries to copy
+     */
+    public void copyTo(int from, double[] dest, int offset, int length) {
+        if (from < 0 || length < 0 || from + length > size)
+            throw new IndexOutOfBoundsException("Range " + from + " to "
+                    + (from + length) + ", size " + size);
+        System.arraycopy(values, from, dest, offset, length);
+    }
+
+    /**
+     * Copies a range of entries into a new array.
+     * @param from the index of the first entry to copy
+     * @param to the index after the last entry to copy
+     * @return the entries
+     */
+    public double[] toArray(int from, int to) {
+        double[] result = new double[to - from];
+        copyTo(from, result, 0, to - from);
+        return result;
+    }
+
+    /**
+     * Gets the most entries the series keeps.
+     * @return the limit, or zero if there isn't one
+     */
+    public int getMaxEntries() { return maxEntries; }
+
+    /**
+     * Sets the most entries the series keeps. If it already has more, they
+     * are merged until they fit.
+     * @param value the limit (rounded down to an even number of at least
+     * two), or zero for no limit
+     */
+    public void setMaxEntries(int value) {
+        if (value <= 0) {
+            maxEntries = 0;
+            return;
+        }
+        maxEntries = Math.max(2, value - (value & 1));
+        while (size > maxEntries) {
+            // an odd entry out covers half of what an entry will cover, so
+            // it joins the values waiting to be stored
+            if ((size & 1) != 0) {
+                double odd = values[--size];
+                int covered = stride;
+                halve();
+                pendingMax = pendingCount == 0 ? odd :
+                        Math.max(pendingMax, odd);
+                pendingSum += odd * covered;
+                pendingCount += covered;
+            } else {
+                halve();
+            }
+        }
+    }
+
+    /**
+     * Removes every value. The limit is kept and the stride goes back to
+     * one.
+     */
+    public void clear() {
+        size = 0;
+        count = 0;
+        stride = 1;
+        pendingCount = 0;
+        pendingSum = 0;
+        pendingMax = 0;
+        last = Double.NaN;
+    }
+}
@@ -0,0 +1,215 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the fitness of each chromosome it has seen, so that members of
+ * a population that share a chromosome don't all have to be simulated
+ * again. It wraps another evaluator and only hands that evaluator the
+ * members (or extra copies of them) that still need scoring. That evaluator
+ * has to be able to score any list of genotypes it is given, so this works
+ * with private world evaluation but not with the shared world's feeders.
+ *
+ * For each chromosome the cache keeps the number of times it has been
+ * scored and the running mean and variance of those scores. What it does
+ * with them depends on the policy:
+ * <ul>
+ * <li>REUSE scores a new chromosome once and then always uses that score,</li>
+ * <li>TOP_UP scores a chromosome until it has a set number of samples and
+ * then uses their mean,</li>
+ * <li>ALWAYS scores every member every time, like having no cache, but
+ * still keeps the statistics.</li>
+ * </ul>
+ *
+ * The cache holds a limited number of chromosomes. When it is full, the one
+ * that was used longest ago is dropped.
+ */
+public class FitnessCache implements FitnessEvaluator {
+    // the most chromosomes held by default
+    public static final int DEFAULT_MAX_ENTRIES = 65536;
+
+    /**
+     * What to do with a chromosome that has been scored before.
+     */
+    public enum Policy {
+        // use the cached mean once there is at least one sample
+        REUSE,
+        // score again until there are enough samples, then use the mean
+        TOP_UP,
+        // score every member, every time
+        ALWAYS
+    }
+
+    /**
+     * The scores seen for one chromosome.
+     */
+    public static class Stats {
+        // the number of scores, their mean and the sum of the squared
+        // differences from the mean (Welford's method)
+        private long count;
+        private double mean;
+        private double m2;
+
+        /**
+         * Adds a score.
+         * @param value the score
+         */
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        /**
+         * Gets the number of times the chromosome has been scored.
+         * @return the number of scores
+         */
+        public long getCount() { return count; }
+
+        /**
+         * Gets the mean of the scores.
+         * @return the mean score
+         */
+        public double getMean() { return mean; }
+
+        /**
+         * Gets the sample variance of the scores.
+         * @return the variance, or zero with fewer than two scores
+         */
+        public double getVariance() {
+            return count < 2 ? 0 : m2 / (count - 1);
+        }
+    }
+
+    // scores the genotypes the cache can't
+    private final FitnessEvaluator evaluator;
+    // what to do with chromosomes that have been scored before
+    private final Policy policy;
+    // the number of samples TOP_UP collects for each chromosome
+    private final int samples;
+    // the statistics of each chromosome, oldest use first. the keys are
+    // copies, so mutating a genotype's chromosome can't change them.
+    private final LinkedHashMap<Genome, Stats> entries;
+    // the number of members given a cached score without being scored, and
+    // the number of scores asked of the wrapped evaluator
+    private long hits = 0;
+    private long evaluations = 0;
+
+    /**
+     * Creates a new fitness cache.
+     * @param evaluator the evaluator that scores what the cache can't
+     * @param policy what to do with chromosomes that have been scored before
+     * @param samples the number of samples TOP_UP collects for each
+     * chromosome (at least one; ignored by the other policies)
+     * @param maxEntries the most chromosomes to hold
+     */
+    public FitnessCache(FitnessEvaluator evaluator, Policy policy,
+            int samples, final int maxEntries) {
+        this.evaluator = evaluator;
+        this.policy = policy;
+        this.samples = Math.max(1, samples);
+        entries = new LinkedHashMap<Genome, Stats>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Genome, Stats> e) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public void evaluate(List<Genotype> population) {
+        // group the members by chromosome, in population order so that the
+        // wrapped evaluator always sees them in the same order
+        LinkedHashMap<Genome, List<Genotype>> groups =
+                new LinkedHashMap<Genome, List<Genotype>>();
+        for (Genotype g : population) {
+            List<Genotype> group = groups.get(g.getChromosome());
+            if (group == null) {
+                group = new ArrayList<Genotype>();
+                groups.put(g.getChromosome(), group);
+            }
+            group.add(g);
+        }
+
+        // work out which genotypes need scoring. if a chromosome needs more
+        // samples than it has members, copies are scored as well. each
+        // group's statistics are held on to here, so that nothing evicted
+        // while this generation is being stored can be lost.
+        ArrayList<Stats> groupStats = new ArrayList<Stats>();
+        ArrayList<Genotype> toScore = new ArrayList<Genotype>();
+        ArrayList<Stats> scoredFor = new ArrayList<Stats>();
+        for (Map.Entry<Genome, List<Genotype>> e : groups.entrySet()) {
+            List<Genotype> group = e.getValue();
+            Stats stats = entries.get(e.getKey());
+            if (stats == null) {
+                stats = new Stats();
+                entries.put(new Genome(e.getKey()), stats);
+            }
+            groupStats.add(stats);
+
+            int needed;
+            if (policy == Policy.ALWAYS)
+                needed = group.size();
+            else if (policy == Policy.TOP_UP)
+                needed = (int) Math.max(0, samples - stats.getCount());
+            else
+                needed = stats.getCount() > 0 ? 0 : 1;
+
+            hits += Math.max(0, group.size() - needed);
+            for (int i = 0; i < needed; i++) {
+                toScore.add(i < group.size() ? group.get(i) :
+                        new Genotype(new Genome(e.getKey())));
+                scoredFor.add(stats);
+            }
+        }
+
+        if (!toScore.isEmpty())
+            evaluator.evaluate(toScore);
+        evaluations += toScore.size();
+        for (int i = 0; i < toScore.size(); i++) {
+            scoredFor.get(i).add(toScore.get(i).getRawFitness());
+        }
+
+        // unless every member is scored every time, every member gets its
+        // chromosome's mean score
+        if (policy == Policy.ALWAYS) return;
+        int index = 0;
+        for (List<Genotype> group : groups.values()) {
+            double mean = groupStats.get(index++).getMean();
+            for (Genotype g : group) {
+                g.setRawFitness(mean);
+            }
+        }
+    }
+
+    /**
+     * Gets the statistics of a chromosome.
+     * @param chromosome the chromosome
+     * @return its statistics, or null if it isn't in the cache
+     */
+    public Stats getStats(Genome chromosome) {
+        return entries.get(chromosome);
+    }
+
+    /**
+     * Gets the number of chromosomes in the cache.
+     * @return the number of entries
+     */
+    public int size() { return entries.size(); }
+
+    /**
+     * Gets the number of members that were given a cached score without
+     * being scored themselves.
+     * @return the number of cache hits
+     */
+    public long getHits() { return hits; }
+
+    /**
+     * Gets the number of scores asked of the wrapped evaluator.
+     * @return the number of evaluations
+     */
+    public long getEvaluations() { return evaluations; }
+}
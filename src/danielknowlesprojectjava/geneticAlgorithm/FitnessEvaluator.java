@@ -0,0 +1,17 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+
+/**
+ * Works out the raw fitness of every member of a population. The genetic
+ * engine hands over the whole population at once, so an evaluator is free
+ * to score the members in any order, or several at a time.
+ */
+public interface FitnessEvaluator {
+
+    /**
+     * Sets the raw fitness of every member of a population.
+     * @param population the population to score
+     */
+    void evaluate(List<Genotype> population);
+}
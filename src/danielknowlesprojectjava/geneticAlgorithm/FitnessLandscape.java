@@ -0,0 +1,232 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The mean and variance of the fitness of every possible chromosome of a
+ * given (small) length. A chromosome's place in the table is its bits read
+ * as one binary number, first bit most significant.
+ *
+ * A landscape is saved as a small header followed by one record per
+ * chromosome, so a saved landscape can be memory-mapped and looked up
+ * without being read in first:
+ * <pre>
+ * int    magic number (FILE_MAGIC)
+ * int    file format version (FILE_VERSION)
+ * int    chromosome length in bits
+ * int    number of times each chromosome was scored
+ * then, for each chromosome in order:
+ * float  mean fitness
+ * float  variance of the fitness
+ * </pre>
+ * Everything is big-endian.
+ */
+public class FitnessLandscape {
+    // marks a file as a fitness landscape ("FLND")
+    public static final int FILE_MAGIC = 0x464C4E44;
+    // the version of the file format
+    public static final int FILE_VERSION = 1;
+    // the longest chromosome a landscape can be built for
+    public static final int MAX_LENGTH = 24;
+    // the size of the header and of each record in bytes
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 8;
+
+    // the header and records, in the file format
+    private final ByteBuffer table;
+    // the length of the chromosomes in bits
+    private final int chromosomeLength;
+    // the number of times each chromosome was scored
+    private final int replicates;
+
+    /**
+     * Creates a landscape around a buffer in the file format.
+     * @param table the buffer, positioned at the start of the header
+     */
+    private FitnessLandscape(ByteBuffer table) {
+        if (table.remaining() < HEADER_SIZE ||
+                table.getInt(0) != FILE_MAGIC)
+            throw new IllegalArgumentException("Not a fitness landscape");
+        if (table.getInt(4) != FILE_VERSION)
+            throw new IllegalArgumentException(
+                    "Unsupported fitness landscape version "
+                    + table.getInt(4));
+
+        this.table = table;
+        chromosomeLength = table.getInt(8);
+        replicates = table.getInt(12);
+        if (chromosomeLength < 0 || chromosomeLength > MAX_LENGTH ||
+                table.capacity() < HEADER_SIZE +
+                ((long) RECORD_SIZE << chromosomeLength))
+            throw new IllegalArgumentException(
+                    "Fitness landscape is damaged");
+    }
+
+    /**
+     * Scores every chromosome of a given length a number of times and
+     * records the mean and variance of each one's scores. Each time round,
+     * every chromosome is scored once, in a new random order, so that an
+     * evaluator that scores chromosomes against each other pits them
+     * against different ones each time.
+     * @param chromosomeLength the length of the chromosomes in bits
+     * @param replicates the number of times to score each chromosome
+     * @param evaluator scores the chromosomes
+     * @param rnd the random number generator to shuffle with
+     * @return the landscape
+     */
+    public static FitnessLandscape build(int chromosomeLength,
+            int replicates, FitnessEvaluator evaluator,
+            SplittableRandom rnd) {
+        if (chromosomeLength < 0 || chromosomeLength > MAX_LENGTH)
+            throw new IllegalArgumentException(
+                    "Chromosome length must be 0 to " + MAX_LENGTH);
+
+        int size = 1 << chromosomeLength;
+        // the running mean and sum of squared differences of each
+        // chromosome's scores (Welford's method)
+        double[] mean = new double[size];
+        double[] m2 = new double[size];
+
+        ArrayList<Genotype> population = new ArrayList<Genotype>(size);
+        ArrayList<Integer> order = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            order.add(i);
+            population.add(null);
+        }
+
+        for (int r = 0; r < replicates; r++) {
+            shuffle(order, rnd);
+            for (int i = 0; i < size; i++) {
+                Genome g = new Genome(chromosomeLength);
+                g.setBits(0, chromosomeLength, order.get(i));
+                population.set(i, new Genotype(g));
+            }
+
+            evaluator.evaluate(population);
+
+            for (int i = 0; i < size; i++) {
+                int index = order.get(i);
+                double value = population.get(i).getRawFitness();
+                double delta = value - mean[index];
+                mean[index] += delta / (r + 1);
+                m2[index] += delta * (value - mean[index]);
+            }
+        }
+
+        ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE +
+                RECORD_SIZE * size);
+        table.putInt(FILE_MAGIC);
+        table.putInt(FILE_VERSION);
+        table.putInt(chromosomeLength);
+        table.putInt(replicates);
+        for (int i = 0; i < size; i++) {
+            table.putFloat((float) mean[i]);
+            table.putFloat(replicates < 2 ? 0 :
+                    (float) (m2[i] / (replicates - 1)));
+        }
+        table.flip();
+        return new FitnessLandscape(table);
+    }
+
+    /**
+     * Shuffles a list with a given random number generator.
+     * @param list the list to shuffle
+     * @param rnd the random number generator to shuffle with
+     */
+    private static void shuffle(List<Integer> list, SplittableRandom rnd) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, rnd.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Memory-maps a saved landscape.
+     * @param file the landscape file
+     * @return the landscape
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file isn't a landscape
+     */
+    public static FitnessLandscape load(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ);
+        try {
+            // the mapping stays valid after the channel is closed
+            return new FitnessLandscape(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Saves the landscape to a file.
+     * @param file the file to write
+     * @throws IOException if the file can't be written
+     */
+    public void save(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer data = table.duplicate();
+            data.clear();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Gets the length of the chromosomes in bits.
+     * @return the chromosome length
+     */
+    public int getChromosomeLength() { return chromosomeLength; }
+
+    /**
+     * Gets the number of times each chromosome was scored.
+     * @return the number of replicates
+     */
+    public int getReplicates() { return replicates; }
+
+    /**
+     * Gets the place of a chromosome's record in the table.
+     * @param chromosome the chromosome
+     * @return the byte offset of its record
+     */
+    private int getOffset(Genome chromosome) {
+        if (chromosome.length() != chromosomeLength)
+            throw new IllegalArgumentException("Chromosome is "
+                    + chromosome.length() + " bits, landscape is for "
+                    + chromosomeLength);
+        return HEADER_SIZE +
+               RECORD_SIZE * (int) chromosome.getBits(0, chromosomeLength);
+    }
+
+    /**
+     * Gets the mean fitness of a chromosome.
+     * @param chromosome the chromosome
+     * @return its mean fitness
+     */
+    public double getMean(Genome chromosome) {
+        return table.getFloat(getOffset(chromosome));
+    }
+
+    /**
+     * Gets the variance of the fitness of a chromosome.
+     * @param chromosome the chromosome
+     * @return the variance of its fitness
+     */
+    public double getVariance(Genome chromosome) {
+        return table.getFloat(getOffset(chromosome) + 4);
+    }
+}
@@ -1,6 +1,5 @@
 package danielknowlesprojectjava.geneticAlgorithm;
 
-import danielknowlesprojectjava.collections.FeederCollection;
 import java.util.*;
 
 /**
@@ -9,41 +8,64 @@ import java.util.*;
  * used for multiple applications.
  */
 public class GeneticEngine {
+    // the default probabilities of crossover and mutation
+    public static final double DEFAULT_CROSSOVER_PROBABILITY = 0.7;
+    public static final double DEFAULT_MUTATION_PROBABILITY = 0.001;
     // Random object used for random number generation in the genetic engine
-    public static Random rnd = new Random();
+    private SplittableRandom rnd;
     // the population of genotypes being evaluated
     private ArrayList<Genotype> population;
     // the size of the population
     private int populationSize;
     // the probability of crossover when mating genotypes
-    private static double crossoverProbability = 0.7;
+    private double crossoverProbability = DEFAULT_CROSSOVER_PROBABILITY;
     // the probability of mutation
-    private static double mutationProbability = 0.001;
+    private double mutationProbability = DEFAULT_MUTATION_PROBABILITY;
     // the maximum number of generations for each run
     private int maxGenerations;
     // the length of the genotype's chromosome array
     private int chromosomeSize;
     // the population's total fitness score
     private double totalFitness;
-    // lists that hold the average fitness scores
-    private ArrayList<Double> avgFitnesses;
-    // list that holds the highest fitness scores
-    private ArrayList<Double> highFitnesses;
+    // picks the parents of each new generation
+    private Selection selection = new RouletteSelection();
+    // scores the population (null if the raw fitness is set from outside)
+    private FitnessEvaluator fitnessEvaluator;
+    // the average fitness score of each generation
+    private final DoubleSeries avgFitnesses =
+            new DoubleSeries(DoubleSeries.Downsampling.MEAN);
+    // the highest fitness score of each generation
+    private final DoubleSeries highFitnesses =
+            new DoubleSeries(DoubleSeries.Downsampling.MAX);
 
 
     /**
-     * Gets the list of average fitness scores for each generation. The index
-     * of each entry corresponds to the generation number minus one.
-     * @return list of average fitness scores
+     * Gets the average fitness score of each generation. Unless a history
+     * limit has been reached, the index of each entry corresponds to the
+     * generation number minus one.
+     * @return the average fitness scores
      */
-    public ArrayList<Double> getAverageFitnesses() { return avgFitnesses; }
+    public DoubleSeries getAverageFitnesses() { return avgFitnesses; }
 
     /**
-     * Gets the list of highest fitness scores found for each generation. The
-     * index of each entry corresponds to the generation number minus one.
-     * @return the list of highest fitness scores
+     * Gets the highest fitness score found in each generation. Unless a
+     * history limit has been reached, the index of each entry corresponds to
+     * the generation number minus one.
+     * @return the highest fitness scores
      */
-    public ArrayList<Double> getHighestFitnesses() { return highFitnesses; }
+    public DoubleSeries getHighestFitnesses() { return highFitnesses; }
+
+    /**
+     * Sets the most entries each fitness history keeps. Past that, the
+     * entries are merged in pairs (averages by their mean, highest scores by
+     * the larger), so a long run's history stays a fixed size while the
+     * recent generations are still recorded exactly by getLast().
+     * @param value the most entries to keep, or zero for no limit
+     */
+    public void setHistoryLimit(int value) {
+        avgFitnesses.setMaxEntries(value);
+        highFitnesses.setMaxEntries(value);
+    }
 
     /**
      * Gets the population.
@@ -54,29 +76,64 @@ public class GeneticEngine {
      * Sets the population.
      * @param value the population of genotypes
      */
-    public void setPopulation(ArrayList<Genotype> value) { population = value; }
+    public void setPopulation(ArrayList<Genotype> value) {
+        population = value;
+    }
+
+    /**
+     * Sets the random number generator the engine draws from.
+     * @param random the random number generator
+     */
+    public void setRandom(SplittableRandom random) { rnd = random; }
+
+    /**
+     * Gets the selection operator that picks the parents of each new
+     * generation.
+     * @return the selection operator
+     */
+    public Selection getSelection() { return selection; }
+    /**
+     * Sets the selection operator that picks the parents of each new
+     * generation.
+     * @param value the selection operator
+     */
+    public void setSelection(Selection value) { selection = value; }
+
+    /**
+     * Gets the evaluator that scores the population.
+     * @return the fitness evaluator, or null if there isn't one
+     */
+    public FitnessEvaluator getFitnessEvaluator() { return fitnessEvaluator; }
+    /**
+     * Sets the evaluator that scores the population.
+     * @param value the fitness evaluator, or null to have each member's raw
+     * fitness set from outside before evaluatePopulation() is called
+     */
+    public void setFitnessEvaluator(FitnessEvaluator value) {
+        fitnessEvaluator = value;
+    }
 
     /**
      * Gets the probability of crossover.
      * @return the probability of crossover
      */
-    public static double getCrossoverProbability() { return crossoverProbability; }
+    public double getCrossoverProbability() { return crossoverProbability; }
     /**
      * Sets the crossover probability.
      * @param value the crossover probability
      */
-    public static void setCrossoverProbability(double value) { crossoverProbability = value; }
+    public void setCrossoverProbability(double value) { crossoverProbability = value; }
 
     /**
      * Gets the probability of mutation.
      * @return the probability of mutation
      */
-    public static double getMutationProbability() { return mutationProbability; }
+    public double getMutationProbability() { return mutationProbability; }
     /**
      * Sets the mutation probability.
      * @param value the mutation probability
      */
-    public static void setMutationProbability(double value) { mutationProbability = value; }
+    public void setMutationProbability(double value) { mutationProbability = value; }
 
     /**
      * Gets the number of maximum generations in each run.
@@ -93,9 +150,8 @@ public class GeneticEngine {
      * Creates a new genetic engine with default values and no population.
      */
     public GeneticEngine() {
-        avgFitnesses = new ArrayList<Double>();
-        highFitnesses = new ArrayList<Double>();
         population = null;
+        rnd = new SplittableRandom();
         crossoverProbability = 0.07;
         mutationProbability = 0.001;
         maxGenerations = Integer.MAX_VALUE;
@@ -107,12 +163,13 @@ public class GeneticEngine {
      * @param mutationRate the probability of mutation
      * @param maxGen the maximum number of generations for each run
      * @param chromosomeLength the length of the chromosome array
+     * @param random the random number generator the engine draws from
      */
     public GeneticEngine(int popSize, double crossoverRate,
-            double mutationRate, int maxGen, int chromosomeLength) {
+            double mutationRate, int maxGen, int chromosomeLength,
+            SplittableRandom random) {
 
-        avgFitnesses = new ArrayList<Double>();
-        highFitnesses = new ArrayList<Double>();
+        rnd = random;
         populationSize = popSize;
         crossoverProbability = crossoverRate;
         mutationProbability = mutationRate;
@@ -128,8 +185,7 @@ public class GeneticEngine {
      * @param chromosomeLength the length of the chromosome array
      */
     public GeneticEngine(int popSize, int maxGen, int chromosomeLength) {
-        avgFitnesses = new ArrayList<Double>();
-        highFitnesses = new ArrayList<Double>();
+        rnd = new SplittableRandom();
         populationSize = popSize;
         maxGenerations = maxGen;
         chromosomeSize = chromosomeLength;
@@ -145,7 +201,7 @@ public class GeneticEngine {
 
         // set the population to an array of random genotypes
         for (int i = 0; i < populationSize; i++) {
-            population.add(new Genotype(chromosomeSize));
+            population.add(new Genotype(chromosomeSize, rnd));
         }
 
         // evaluate the population
@@ -153,22 +209,31 @@ public class GeneticEngine {
     }
 
     /**
-     * Sets the fitness scores for each member of the population.
+     * Works out the normalized fitness of each member of the population and
+     * records the generation's statistics. The raw fitness comes from the
+     * fitness evaluator if there is one; otherwise set each member's raw
+     * fitness before calling this.
      */
     public void evaluatePopulation() {
+        if (fitnessEvaluator != null)
+            fitnessEvaluator.evaluate(population);
+
         // reset the total fitness score
         totalFitness = 0;
 
         for (int i = 0; i < populationSize; i++) {
-            population.get(i).setRawFitness(
-                    FeederCollection.getFeeders().get(i).GetFitness());
             totalFitness += population.get(i).getRawFitness();
         }
 
         // set the normalized fitness for each population member
         for (Genotype g : population) {
-            // normalized fitness = raw fitness / total fitness
-            g.setNormalizedFitness((g.getRawFitness() / totalFitness));
+            if (totalFitness > 0) {
+                // normalized fitness = raw fitness / total fitness
+                g.setNormalizedFitness((g.getRawFitness() / totalFitness));
+            } else {
+                // nobody scored, so everybody gets an equal slice
+                g.setNormalizedFitness(1.0 / population.size());
+            }
         }
 
         // sort the popoulation
@@ -181,41 +246,22 @@ public class GeneticEngine {
     }
 
     /**
-     * Creates the next generation.
+     * Creates the next generation. Call evaluatePopulation() first.
      */
     public void setNextGeneration() {
         // create a temporary population
         ArrayList<Genotype> tempPopulation = new ArrayList<Genotype>();
 
-        // select mates
+        // select mates, two for each offspring
+        selection.prepare(population, populationSize * 2, rnd);
         while (tempPopulation.size() < populationSize) {
-            tempPopulation.add(Genotype.Mate(rouletteSelection(),
-                    rouletteSelection(), crossoverProbability));
-        }
-    }
-
-    /**
-     * Selects a genotype to mate.
-     * @return a genotype to mate
-     */
-    public Genotype rouletteSelection() {
-        // get a number between 0 and 1 to compare against
-        double slice = rnd.nextDouble();
-        // keep track of the cumulative fitness
-        double cumulativeFitness = 0;
-
-        // loop through the population to pick a mate
-        for (Genotype g : population) {
-            // increment the cumulative fitness with the member's normalized fitness
-            cumulativeFitness += g.getNormalizedFitness();
-            // if the cumulative fitness is greater than the random number,
-            if (cumulativeFitness > slice) {
-                // select the member for mating
-                return g;
-            }
+            Genotype offspring = Genotype.Mate(selection.select(rnd),
+                    selection.select(rnd), crossoverProbability, rnd);
+            offspring.Mutate(mutationProbability, rnd);
+            tempPopulation.add(offspring);
         }
 
-        // if no members are chosen, pick the one with the highest fitness score
-        return population.get(0);
+        // the offspring become the new population
+        setPopulation(tempPopulation);
     }
 }
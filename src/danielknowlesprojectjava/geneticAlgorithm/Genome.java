@@ -0,0 +1,224 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A string of bits packed 64 to a long. Bit 0 is the most significant bit
+ * of the first word, so a run of bits read with getBits() comes out as a
+ * binary number with its first bit most significant, the same way the bits
+ * would be written down. Any bits in the last word past the end of the
+ * genome are always zero.
+ *
+ * Crossover works on whole words and mutation skips straight from one
+ * flipped bit to the next, so neither has to look at every bit.
+ */
+public class Genome {
+    // the bits, 64 to a word
+    private final long[] words;
+    // the number of bits
+    private final int length;
+
+    /**
+     * Creates a new genome with every bit cleared.
+     * @param length the number of bits
+     */
+    public Genome(int length) {
+        this.length = length;
+        words = new long[(length + 63) >>> 6];
+    }
+
+    /**
+     * Creates a copy of a genome.
+     * @param other the genome to copy
+     */
+    public Genome(Genome other) {
+        length = other.length;
+        words = other.words.clone();
+    }
+
+    /**
+     * Gets the number of bits in the genome.
+     * @return the number of bits
+     */
+    public int length() { return length; }
+
+    /**
+     * Gets the number of longs the bits are packed into.
+     * @return the number of words
+     */
+    public int getWordCount() { return words.length; }
+
+    /**
+     * Gets one of the longs the bits are packed into. Word i holds bits 64i
+     * to 64i + 63, first bit most significant.
+     * @param index the index of the word
+     * @return the word
+     */
+    public long getWord(int index) { return words[index]; }
+
+    /**
+     * Sets one of the longs the bits are packed into. Any bits past the end
+     * of the genome are cleared.
+     * @param index the index of the word
+     * @param value the word
+     */
+    public void setWord(int index, long value) {
+        words[index] = index == words.length - 1 ? value & getTailMask() :
+                value;
+    }
+
+    /**
+     * Gets a mask of the bits in the last word that are inside the genome.
+     * @return the mask
+     */
+    private long getTailMask() {
+        int used = length & 63;
+        return used == 0 ? -1L : -1L << (64 - used);
+    }
+
+    /**
+     * Gets a bit.
+     * @param index the index of the bit
+     * @return true if the bit is set, false if not
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (Long.MIN_VALUE >>> (index & 63))) != 0;
+    }
+
+    /**
+     * Sets or clears a bit.
+     * @param index the index of the bit
+     * @param value true to set the bit, false to clear it
+     */
+    public void set(int index, boolean value) {
+        if (value)
+            words[index >>> 6] |= Long.MIN_VALUE >>> (index & 63);
+        else
+            words[index >>> 6] &= ~(Long.MIN_VALUE >>> (index & 63));
+    }
+
+    /**
+     * Flips a bit.
+     * @param index the index of the bit
+     */
+    public void flip(int index) {
+        words[index >>> 6] ^= Long.MIN_VALUE >>> (index & 63);
+    }
+
+    /**
+     * Reads a run of bits as a binary number, first bit most significant.
+     * @param from the index of the first bit
+     * @param count the number of bits to read (0 to 64)
+     * @return the value of the bits
+     */
+    public long getBits(int from, int count) {
+        if (count == 0) return 0;
+
+        int word = from >>> 6;
+        int offset = from & 63;
+        // line the first bit up with the top of a long, pulling the rest
+        // from the next word if the run crosses into it
+        long bits = words[word] << offset;
+        if (offset + count > 64)
+            bits |= words[word + 1] >>> (64 - offset);
+        return bits >>> (64 - count);
+    }
+
+    /**
+     * Writes a binary number into a run of bits, first bit most significant.
+     * @param from the index of the first bit
+     * @param count the number of bits to write (0 to 64)
+     * @param value the number to write. Only its lowest count bits are used.
+     */
+    public void setBits(int from, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            set(from + i, ((value >>> (count - 1 - i)) & 1) != 0);
+        }
+    }
+
+    /**
+     * Sets every bit at random.
+     * @param rnd the random number generator to draw the bits from
+     */
+    public void randomize(SplittableRandom rnd) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = rnd.nextLong();
+        }
+        if (words.length > 0)
+            words[words.length - 1] &= getTailMask();
+    }
+
+    /**
+     * Sets this genome to the first part of one genome followed by the rest
+     * of another. All three genomes must be the same length.
+     * @param first the genome to take the bits before the point from
+     * @param second the genome to take the bits from the point on from
+     * @param point the index of the first bit taken from the second genome
+     */
+    public void crossover(Genome first, Genome second, int point) {
+        int word = point >>> 6;
+        int offset = point & 63;
+
+        System.arraycopy(first.words, 0, words, 0, word);
+        if (word < words.length) {
+            // the word the point falls in is split by a mask
+            long mask = offset == 0 ? 0 : -1L << (64 - offset);
+            words[word] = (first.words[word] & mask) |
+                          (second.words[word] & ~mask);
+            System.arraycopy(second.words, word + 1, words, word + 1,
+                    words.length - word - 1);
+        }
+    }
+
+    /**
+     * Flips each bit with a given probability. Instead of rolling for every
+     * bit, the gap to the next flipped bit is drawn from the geometric
+     * distribution, which gives the same odds with one roll per flip.
+     * @param rate the probability of each bit being flipped
+     * @param rnd the random number generator to roll with
+     */
+    public void mutate(double rate, SplittableRandom rnd) {
+        if (rate <= 0 || length == 0) return;
+
+        if (rate >= 1) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] = ~words[i];
+            }
+            words[words.length - 1] &= getTailMask();
+            return;
+        }
+
+        double logMiss = Math.log1p(-rate);
+        int index = -1;
+        while (true) {
+            // the number of bits skipped before the next flip. 1 -
+            // nextDouble() is never zero, so the log is finite.
+            double gap = Math.floor(Math.log(1 - rnd.nextDouble()) / logMiss);
+            if (gap >= length - 1 - index) return;
+            index += (int) gap + 1;
+            flip(index);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Genome)) return false;
+        Genome other = (Genome) o;
+        return length == other.length && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(words) + length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(get(i) ? '1' : '0');
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package danielknowlesprojectjava.geneticAlgorithm;
 
 import java.util.Comparator;
+import java.util.SplittableRandom;
 
 /**
  * The object that encodes the genetic traits.
@@ -8,8 +9,7 @@ import java.util.Comparator;
 public class Genotype {
     private double rawFitness;             // The genotype's raw fitness score
     private double normalizedFitness;   // The genotype's normalized fitness
-    private boolean[] chromosome;       // The encoded traits
-    private static int chromosomeSize;  // The size of the chromosome array
+    private Genome chromosome;          // The encoded traits
 
     /**
      * Gets the object's raw fitness score.
@@ -36,17 +36,17 @@ public class Genotype {
     public void setNormalizedFitness(double value) { normalizedFitness = value;}
 
     /**
-     * Gets the chromosome array. This array is the encoded array of the
-     * object's genetic traits.
-     * @return the chromosome array
+     * Gets the chromosome. This is the encoded string of the object's
+     * genetic traits.
+     * @return the chromosome
      */
-    public boolean[] getChromosome() { return chromosome; }
+    public Genome getChromosome() { return chromosome; }
 
     /**
-     * Sets the chromosome array.
-     * @param value the chromosome array to set
+     * Sets the chromosome.
+     * @param value the chromosome to set
      */
-    public void setChromosome(boolean[] value) { chromosome = value; }
+    public void setChromosome(Genome value) { chromosome = value; }
 
     /**
      * Compares two genotypes. Used to sort genotypes by raw fitness score.
@@ -63,44 +63,29 @@ public class Genotype {
     /**
      * Creates a new genotype.
      * @param size the size of the chromosome (number of bits)
+     * @param rnd the random number generator to draw the genes from
      */
-    public Genotype(int size) {
-        chromosomeSize = size;
-        chromosome = new boolean [chromosomeSize];
-        SetRandomChromosome();
+    public Genotype(int size, SplittableRandom rnd) {
+        chromosome = new Genome(size);
+        chromosome.randomize(rnd);
     }
 
     /**
      * Creates a new genotype.
-     * @param genes the chromosome array
+     * @param genes the chromosome
      */
-    public Genotype(boolean[] genes) {
+    public Genotype(Genome genes) {
         chromosome = genes;
-        chromosomeSize = genes.length;
-    }
-
-    /**
-     * Puts random booleans into the chromosome array.
-     */
-    private void SetRandomChromosome() {
-        for (int i = 0; i < chromosomeSize; i++) {
-            chromosome[i] = GeneticEngine.rnd.nextBoolean();
-        }
     }
 
     /**
      * Mutates the genotype.
      * @param mutationRate the probability of mutation
+     * @param rnd the random number generator to roll with
      */
-    public void Mutate(double mutationRate) {
+    public void Mutate(double mutationRate, SplittableRandom rnd) {
         // there's a chance for each bit's mutation
-        for (int i = 0; i < chromosomeSize; i++) {
-            // if the next random double is less than the mutation rate
-            if (GeneticEngine.rnd.nextDouble() < mutationRate) {
-                // flip the bit
-                chromosome[i] = !chromosome[i];
-            }
-        }
+        chromosome.mutate(mutationRate, rnd);
     }
 
     /**
@@ -108,39 +93,28 @@ public class Genotype {
      * @param g1 the first genotype to mate
      * @param g2 the second genotype to mate
      * @param crossoverRate the probability of crossover
+     * @param rnd the random number generator to roll with
      * @return a genotype as offspring
      */
     public static Genotype Mate(Genotype g1, Genotype g2,
-            double crossoverRate) {
+            double crossoverRate, SplittableRandom rnd) {
         int crossoverPoint = 0; // the index to crossover the chromosomes
-        // the offspring's chromosome
-        boolean[] offspringChromosome = new boolean[chromosomeSize];
         // if next random double is less than the crossover rate
-        if (GeneticEngine.rnd.nextDouble() < crossoverRate) {
+        if (rnd.nextDouble() < crossoverRate) {
             // set crossover point to a random number
-            crossoverPoint = GeneticEngine.rnd.nextInt(chromosomeSize);
+            crossoverPoint = rnd.nextInt(g1.chromosome.length());
         }
 
-        // if zero crossover, return the first genotype
+        // if zero crossover, return a copy of the first genotype
         if (crossoverPoint == 0) {
-            return g1;
-        }
-        // otherwise, create offspring using crossover point to mix the genotypes
-        else {
-            // set the first part of the offspring's genes array to the first
-            // part of the first genotype's chromosome
-            for (int i = 0; i < crossoverPoint; i++) {
-                offspringChromosome[i] = g1.chromosome[i];
-            }
-
-            // set the second part of the offspring's genes array to the second
-            // part of the second genotype's chromosome
-            for (int i = crossoverPoint; i < chromosomeSize; i++) {
-                offspringChromosome[i] = g2.chromosome[i];
-            }
-
-            // return a new genotype using the offspring chromosome
-            return new Genotype(offspringChromosome);
+            return new Genotype(new Genome(g1.chromosome));
         }
+
+        // otherwise, the offspring gets the first genotype's genes before
+        // the crossover point and the second genotype's genes after it
+        Genome offspringChromosome = new Genome(g1.chromosome.length());
+        offspringChromosome.crossover(g1.chromosome, g2.chromosome,
+                crossoverPoint);
+        return new Genotype(offspringChromosome);
     }
 }
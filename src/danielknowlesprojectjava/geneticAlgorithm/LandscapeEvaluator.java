@@ -0,0 +1,28 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+
+/**
+ * Scores each member of a population by looking up its chromosome's mean
+ * fitness in a precomputed fitness landscape, so no simulation is run at
+ * all. This makes it cheap to try out genetic operators over thousands of
+ * generations.
+ */
+public class LandscapeEvaluator implements FitnessEvaluator {
+    // the table of fitness values
+    private final FitnessLandscape landscape;
+
+    /**
+     * Creates a new landscape evaluator.
+     * @param landscape the table of fitness values
+     */
+    public LandscapeEvaluator(FitnessLandscape landscape) {
+        this.landscape = landscape;
+    }
+
+    public void evaluate(List<Genotype> population) {
+        for (Genotype g : population) {
+            g.setRawFitness(landscape.getMean(g.getChromosome()));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fitness proportionate selection. Each pick spins a roulette wheel where
+ * every member's slice is its normalized fitness. The running totals of the
+ * slices are worked out once per generation, so each spin is a binary
+ * search.
+ */
+public class RouletteSelection implements Selection {
+    // the population being picked from
+    private List<Genotype> population;
+    // the running total of normalized fitness up to and including each
+    // member of the population
+    private double[] cumulativeFitness = new double[0];
+
+    public void prepare(List<Genotype> population, int picks,
+            SplittableRandom rnd) {
+        this.population = population;
+        if (cumulativeFitness.length != population.size())
+            cumulativeFitness = new double[population.size()];
+
+        double cumulative = 0;
+        for (int i = 0; i < cumulativeFitness.length; i++) {
+            cumulative += population.get(i).getNormalizedFitness();
+            cumulativeFitness[i] = cumulative;
+        }
+    }
+
+    public Genotype select(SplittableRandom rnd) {
+        // get a number between 0 and 1 to compare against
+        double slice = rnd.nextDouble();
+
+        // find the first member whose cumulative fitness is greater than the
+        // random number. the running totals only go up, so a binary search
+        // finds it without walking the population.
+        int low = 0;
+        int high = cumulativeFitness.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeFitness[middle] > slice)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+
+        if (cumulativeFitness.length > 0 && cumulativeFitness[low] > slice) {
+            // select the member for mating
+            return population.get(low);
+        }
+
+        // if no members are chosen, pick the one with the highest fitness score
+        return population.get(0);
+    }
+}
@@ -0,0 +1,29 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Picks the parents of the next generation. The genetic engine calls
+ * prepare() once per generation, after the population has been evaluated,
+ * and then select() twice for each offspring. Anything that only depends on
+ * the population is worked out in prepare(), so each pick is cheap.
+ */
+public interface Selection {
+
+    /**
+     * Gets ready to pick from a population.
+     * @param population the evaluated population, sorted from highest to
+     * lowest raw fitness, with the normalized fitness of each member set
+     * @param picks the number of times select() will be called
+     * @param rnd the random number generator to roll with
+     */
+    void prepare(List<Genotype> population, int picks, SplittableRandom rnd);
+
+    /**
+     * Picks a member of the population to mate.
+     * @param rnd the random number generator to roll with
+     * @return the picked genotype
+     */
+    Genotype select(SplittableRandom rnd);
+}
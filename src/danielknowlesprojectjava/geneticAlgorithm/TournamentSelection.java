@@ -0,0 +1,59 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Tournament selection. Each pick draws a few members at random and takes
+ * the fittest of them. Only the order of the members matters, not how far
+ * apart their scores are, and a bigger tournament means more selection
+ * pressure. Each pick takes constant time, with nothing to work out per
+ * generation.
+ */
+public class TournamentSelection implements Selection {
+    // the number of members in a tournament by default
+    public static final int DEFAULT_SIZE = 2;
+    // the number of members in each tournament
+    private final int size;
+    // the population being picked from
+    private List<Genotype> population;
+
+    /**
+     * Creates a new tournament selection with the default tournament size.
+     */
+    public TournamentSelection() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new tournament selection.
+     * @param size the number of members in each tournament (at least one)
+     */
+    public TournamentSelection(int size) {
+        if (size < 1)
+            throw new IllegalArgumentException(
+                    "Tournament size must be at least 1");
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of members in each tournament.
+     * @return the tournament size
+     */
+    public int getSize() { return size; }
+
+    public void prepare(List<Genotype> population, int picks,
+            SplittableRandom rnd) {
+        this.population = population;
+    }
+
+    public Genotype select(SplittableRandom rnd) {
+        // the population is sorted from fittest to least fit, so the winner
+        // is the entrant with the lowest index
+        int best = rnd.nextInt(population.size());
+        for (int i = 1; i < size; i++) {
+            best = Math.min(best, rnd.nextInt(population.size()));
+        }
+        return population.get(best);
+    }
+}
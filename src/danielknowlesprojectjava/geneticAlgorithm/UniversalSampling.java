@@ -0,0 +1,66 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Stochastic universal sampling. Like roulette selection, each member's
+ * chance of being picked is its normalized fitness, but all of a
+ * generation's picks come from one spin of a wheel with evenly spaced
+ * pointers. A member is picked within one of the number of times its fitness
+ * says it should be, so there is less luck involved than with separate
+ * spins.
+ *
+ * The picks are made in one walk over the population in prepare() and then
+ * shuffled, so that members next to each other in fitness aren't always
+ * mated together. select() just hands them out.
+ */
+public class UniversalSampling implements Selection {
+    // the picks for the generation, in the order they are handed out
+    private Genotype[] picks = new Genotype[0];
+    // the number of picks handed out so far
+    private int next = 0;
+    // the population being picked from, for picks past the expected number
+    private List<Genotype> population;
+
+    public void prepare(List<Genotype> population, int count,
+            SplittableRandom rnd) {
+        this.population = population;
+        if (picks.length != count)
+            picks = new Genotype[count];
+        next = 0;
+        if (count == 0 || population.isEmpty()) return;
+
+        // the pointers are a slice apart, starting somewhere in the first
+        double spacing = 1.0 / count;
+        double pointer = rnd.nextDouble() * spacing;
+        double cumulative = population.get(0).getNormalizedFitness();
+        int member = 0;
+        for (int i = 0; i < count; i++) {
+            // rounding can leave the total a little short of one, so the
+            // last member takes anything past the end
+            while (cumulative <= pointer && member < population.size() - 1) {
+                member++;
+                cumulative += population.get(member).getNormalizedFitness();
+            }
+            picks[i] = population.get(member);
+            pointer += spacing;
+        }
+
+        // shuffle the picks
+        for (int i = count - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            Genotype g = picks[i];
+            picks[i] = picks[j];
+            picks[j] = g;
+        }
+    }
+
+    public Genotype select(SplittableRandom rnd) {
+        if (next < picks.length)
+            return picks[next++];
+
+        // more picks than expected, so fall back to a member picked at random
+        return population.get(rnd.nextInt(population.size()));
+    }
+}
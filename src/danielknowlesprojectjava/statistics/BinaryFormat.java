@@ -0,0 +1,61 @@
+package danielknowlesprojectjava.statistics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes generation records as fixed size binary records, so a file can be
+ * read back, or jumped into at any generation, without any parsing. A file
+ * starts with a header and is followed by one record per generation, all
+ * big-endian:
+ * <pre>
+ * int    magic number (FILE_MAGIC)
+ * int    file format version (FILE_VERSION)
+ * int    size of each record in bytes (RECORD_SIZE)
+ * then, for each generation:
+ * int    generation number
+ * double average, highest and lowest fitness
+ * double mean speed, eyesight and intelligence
+ * double diversity
+ * long   simulation, evaluation and breeding time in nanoseconds
+ * </pre>
+ */
+public class BinaryFormat implements StatisticsFormat {
+    // marks a file as a statistics file ("FSTA")
+    public static final int FILE_MAGIC = 0x46535441;
+    // the version of the file format
+    public static final int FILE_VERSION = 1;
+    // the size of the header and of each record in bytes
+    public static final int HEADER_SIZE = 12;
+    public static final int RECORD_SIZE = 4 + 7 * 8 + 3 * 8;
+
+    public int getMaxRecordSize() { return RECORD_SIZE; }
+
+    public void writeHeader(ByteBuffer out) {
+        out.putInt(FILE_MAGIC);
+        out.putInt(FILE_VERSION);
+        out.putInt(RECORD_SIZE);
+    }
+
+    public void checkHeader(ByteBuffer start) {
+        if (start.remaining() < HEADER_SIZE || start.getInt() != FILE_MAGIC)
+            throw new IllegalArgumentException("Not a statistics file");
+        int version = start.getInt();
+        if (version != FILE_VERSION || start.getInt() != RECORD_SIZE)
+            throw new IllegalArgumentException(
+                    "Unsupported statistics file version " + version);
+    }
+
+    public void write(GenerationRecord record, ByteBuffer out) {
+        out.putInt(record.getGeneration());
+        out.putDouble(record.getAverageFitness());
+        out.putDouble(record.getHighestFitness());
+        out.putDouble(record.getLowestFitness());
+        out.putDouble(record.getMeanSpeed());
+        out.putDouble(record.getMeanEyesight());
+        out.putDouble(record.getMeanIntelligence());
+        out.putDouble(record.getDiversity());
+        out.putLong(record.getSimulationTime());
+        out.putLong(record.getEvaluationTime());
+        out.putLong(record.getBreedingTime());
+    }
+}
@@ -0,0 +1,55 @@
+package danielknowlesprojectjava.statistics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes generation records as lines of comma separated values, with a line
+ * of column names at the top of the file. Times are in milliseconds.
+ */
+public class CsvFormat implements StatisticsFormat {
+    // the first line of a file
+    private static final String HEADER = "generation,averageFitness,"
+            + "highestFitness,lowestFitness,meanSpeed,meanEyesight,"
+            + "meanIntelligence,diversity,simulationMs,evaluationMs,"
+            + "breedingMs\n";
+    // reused to put each line together
+    private final StringBuilder line = new StringBuilder(256);
+
+    public int getMaxRecordSize() {
+        // eleven numbers of at most 25 characters each and their separators
+        return Math.max(HEADER.length(), 11 * 26);
+    }
+
+    public void writeHeader(ByteBuffer out) {
+        out.put(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public void checkHeader(ByteBuffer start) {
+        byte[] expected = HEADER.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < expected.length; i++) {
+            if (!start.hasRemaining() || start.get() != expected[i])
+                throw new IllegalArgumentException(
+                        "Not a statistics CSV file with the same columns");
+        }
+    }
+
+    public void write(GenerationRecord record, ByteBuffer out) {
+        line.setLength(0);
+        line.append(record.getGeneration()).append(',')
+            .append(record.getAverageFitness()).append(',')
+            .append(record.getHighestFitness()).append(',')
+            .append(record.getLowestFitness()).append(',')
+            .append(record.getMeanSpeed()).append(',')
+            .append(record.getMeanEyesight()).append(',')
+            .append(record.getMeanIntelligence()).append(',')
+            .append(record.getDiversity()).append(',')
+            .append(record.getSimulationTime() / 1e6).append(',')
+            .append(record.getEvaluationTime() / 1e6).append(',')
+            .append(record.getBreedingTime() / 1e6).append('\n');
+        // the line is all ASCII, so each char is one byte
+        for (int i = 0; i < line.length(); i++) {
+            out.put((byte) line.charAt(i));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package danielknowlesprojectjava.statistics;
+
+/**
+ * The statistics of one finished generation. Records can't be changed once
+ * they are made, so they can be handed to another thread to be written.
+ */
+public class GenerationRecord {
+    // the number of the generation
+    private final int generation;
+    // the average, highest and lowest raw fitness
+    private final double averageFitness;
+    private final double highestFitness;
+    private final double lowestFitness;
+    // the mean value of each trait over the population
+    private final double meanSpeed;
+    private final double meanEyesight;
+    private final double meanIntelligence;
+    // how varied the population's chromosomes were
+    private final double diversity;
+    // the wall time spent simulating, scoring and breeding the generation,
+    // in nanoseconds
+    private final long simulationTime;
+    private final long evaluationTime;
+    private final long breedingTime;
+
+    /**
+     * Creates a new generation record.
+     * @param generation the number of the generation
+     * @param averageFitness the average raw fitness
+     * @param highestFitness the highest raw fitness
+     * @param lowestFitness the lowest raw fitness
+     * @param meanSpeed the mean speed trait
+     * @param meanEyesight the mean eyesight trait
+     * @param meanIntelligence the mean intelligence trait
+     * @param diversity the chance that two members picked at random differ
+     * at a bit picked at random
+     * @param simulationTime nanoseconds spent running the generation's ticks
+     * @param evaluationTime nanoseconds spent scoring the population
+     * @param breedingTime nanoseconds spent breeding the next generation and
+     * putting it in the world
+     */
+    public GenerationRecord(int generation, double averageFitness,
+            double highestFitness, double lowestFitness, double meanSpeed,
+            double meanEyesight, double meanIntelligence, double diversity,
+            long simulationTime, long evaluationTime, long breedingTime) {
+        this.generation = generation;
+        this.averageFitness = averageFitness;
+        this.highestFitness = highestFitness;
+        this.lowestFitness = lowestFitness;
+        this.meanSpeed = meanSpeed;
+        this.meanEyesight = meanEyesight;
+        this.meanIntelligence = meanIntelligence;
+        this.diversity = diversity;
+        this.simulationTime = simulationTime;
+        this.evaluationTime = evaluationTime;
+        this.breedingTime = breedingTime;
+    }
+
+    /**
+     * Gets the number of the generation.
+     * @return the generation number
+     */
+    public int getGeneration() { return generation; }
+
+    /**
+     * Gets the average raw fitness of the generation.
+     * @return the average fitness
+     */
+    public double getAverageFitness() { return averageFitness; }
+
+    /**
+     * Gets the highest raw fitness in the generation.
+     * @return the highest fitness
+     */
+    public double getHighestFitness() { return highestFitness; }
+
+    /**
+     * Gets the lowest raw fitness in the generation.
+     * @return the lowest fitness
+     */
+    public double getLowestFitness() { return lowestFitness; }
+
+    /**
+     * Gets the mean speed trait of the generation.
+     * @return the mean speed
+     */
+    public double getMeanSpeed() { return meanSpeed; }
+
+    /**
+     * Gets the mean eyesight trait of the generation.
+     * @return the mean eyesight
+     */
+    public double getMeanEyesight() { return meanEyesight; }
+
+    /**
+     * Gets the mean intelligence trait of the generation.
+     * @return the mean intelligence
+     */
+    public double getMeanIntelligence() { return meanIntelligence; }
+
+    /**
+     * Gets the chance that two members picked at random differ at a bit
+     * picked at random. Zero means every member is the same; a population
+     * of random chromosomes is close to a half.
+     * @return the diversity
+     */
+    public double getDiversity() { return diversity; }
+
+    /**
+     * Gets the wall time spent running the generation's ticks.
+     * @return the time in nanoseconds
+     */
+    public long getSimulationTime() { return simulationTime; }
+
+    /**
+     * Gets the wall time spent scoring the population.
+     * @return the time in nanoseconds
+     */
+    public long getEvaluationTime() { return evaluationTime; }
+
+    /**
+     * Gets the wall time spent breeding the next generation and putting it
+     * in the world.
+     * @return the time in nanoseconds
+     */
+    public long getBreedingTime() { return breedingTime; }
+}
@@ -0,0 +1,35 @@
+package danielknowlesprojectjava.statistics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns generation records into bytes for a statistics file.
+ */
+public interface StatisticsFormat {
+
+    /**
+     * Gets the most bytes a header or a single record can take.
+     * @return the largest size in bytes
+     */
+    int getMaxRecordSize();
+
+    /**
+     * Writes what goes at the start of a new file.
+     * @param out the buffer to write to
+     */
+    void writeHeader(ByteBuffer out);
+
+    /**
+     * Checks that an existing file can have more records added to it.
+     * @param start the start of the file, up to getMaxRecordSize() bytes
+     * @throws IllegalArgumentException if the file is in another format
+     */
+    void checkHeader(ByteBuffer start);
+
+    /**
+     * Writes a record.
+     * @param record the record to write
+     * @param out the buffer to write to
+     */
+    void write(GenerationRecord record, ByteBuffer out);
+}
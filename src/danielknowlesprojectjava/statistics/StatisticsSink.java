@@ -0,0 +1,23 @@
+package danielknowlesprojectjava.statistics;
+
+import java.io.IOException;
+
+/**
+ * Takes the statistics of each generation as the world finishes it.
+ */
+public interface StatisticsSink {
+
+    /**
+     * Called once for each finished generation, on the thread that runs the
+     * world. It should return quickly.
+     * @param record the generation's statistics
+     */
+    void record(GenerationRecord record);
+
+    /**
+     * Finishes with the sink, making sure every record it was given has been
+     * dealt with.
+     * @throws IOException if any record couldn't be written
+     */
+    void close() throws IOException;
+}
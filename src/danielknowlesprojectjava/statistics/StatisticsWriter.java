@@ -0,0 +1,197 @@
+package danielknowlesprojectjava.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Appends generation records to a file on a thread of its own, so the world
+ * never waits for the disk. Records are queued as they come in, and the
+ * writer thread takes everything that has built up since its last write
+ * and writes it all at once. Nothing is kept once it has been written, so a
+ * run can go on for as long as it likes without the statistics using more
+ * memory.
+ *
+ * The queue is bounded. If the disk falls that far behind, record() waits
+ * for room rather than letting the queue grow without limit.
+ *
+ * A file that already exists is added to, as long as it is in the same
+ * format, so a resumed run carries on in the same file.
+ */
+public class StatisticsWriter implements StatisticsSink {
+    // the number of records the queue holds by default
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    // marks the end of the records
+    private static final GenerationRecord END =
+            new GenerationRecord(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    // turns the records into bytes
+    private final StatisticsFormat format;
+    // the file being written
+    private final FileChannel channel;
+    // records waiting to be written
+    private final BlockingQueue<GenerationRecord> queue;
+    // writes the records
+    private final Thread writer;
+    // the first error the writer thread hit, or null if it hasn't hit one
+    private volatile IOException failure;
+
+    /**
+     * Opens a statistics file and starts the writer thread.
+     * @param file the file to add the records to
+     * @param format the format of the file
+     * @throws IOException if the file can't be opened
+     * @throws IllegalArgumentException if the file already exists in another
+     * format
+     */
+    public StatisticsWriter(File file, StatisticsFormat format)
+            throws IOException {
+        this(file, format, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Opens a statistics file and starts the writer thread.
+     * @param file the file to add the records to
+     * @param format the format of the file
+     * @param queueSize the most records to hold before record() waits
+     * @throws IOException if the file can't be opened
+     * @throws IllegalArgumentException if the file already exists in another
+     * format
+     */
+    public StatisticsWriter(File file, StatisticsFormat format,
+            int queueSize) throws IOException {
+        this.format = format;
+        queue = new ArrayBlockingQueue<GenerationRecord>(Math.max(1, queueSize));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            ByteBuffer start = ByteBuffer.allocate(format.getMaxRecordSize());
+            if (channel.size() == 0) {
+                format.writeHeader(start);
+                start.flip();
+                while (start.hasRemaining()) {
+                    channel.write(start);
+                }
+            } else {
+                while (start.hasRemaining() &&
+                        channel.read(start, start.position()) > 0) {
+                    // keep reading until the buffer is full or the file ends
+                }
+                start.flip();
+                format.checkHeader(start);
+            }
+            channel.position(channel.size());
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        } catch (IllegalArgumentException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        writer = new Thread(new Runnable() {
+            public void run() {
+                writeRecords();
+            }
+        }, "statistics writer");
+        // don't keep the application running just for the writer
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes records as they arrive until the end marker is taken. Runs on
+     * the writer thread.
+     */
+    private void writeRecords() {
+        ArrayList<GenerationRecord> batch = new ArrayList<GenerationRecord>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(
+                format.getMaxRecordSize() * 64);
+        boolean ended = false;
+
+        while (!ended) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                // only close() stops the writer
+                continue;
+            }
+            queue.drainTo(batch);
+
+            buffer.clear();
+            for (GenerationRecord record : batch) {
+                if (record == END) {
+                    ended = true;
+                    break;
+                }
+                // write out what there is when the next one might not fit
+                if (buffer.remaining() < format.getMaxRecordSize())
+                    flush(buffer);
+                format.write(record, buffer);
+            }
+            flush(buffer);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes what is in a buffer to the file and empties it. Does nothing
+     * once a write has failed.
+     * @param buffer the buffer to write
+     */
+    private void flush(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (failure == null && buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            failure = ex;
+        }
+        buffer.clear();
+    }
+
+    public void record(GenerationRecord record) {
+        // nothing more can be written after a failure, and close() reports it
+        if (failure != null) return;
+        try {
+            queue.put(record);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for every queued record to be written and closes the file.
+     * @throws IOException if any record couldn't be written
+     */
+    public void close() throws IOException {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(END);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+
+        channel.close();
+        if (failure != null)
+            throw failure;
+    }
+}
@@ -0,0 +1,133 @@
+package danielknowlesprojectjava.collections;
+
+import danielknowlesprojectjava.components.Food;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests FoodSet, in particular that removing food shifts the rest of a run
+ * of full slots back correctly when the run wraps past the end of the table.
+ */
+public class FoodSetTest {
+
+    /**
+     * Works out a food index's home slot the same way FoodSet does.
+     * @param index the food index
+     * @param mask the table length minus one
+     * @return the home slot
+     */
+    private static int home(int index, int mask) {
+        int h = index * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Makes food objects whose home slot is the same.
+     * @param count the number of food objects to make
+     * @param slot the home slot
+     * @param mask the table length minus one
+     * @return the food objects
+     */
+    private static ArrayList<Food> foodAt(int count, int slot, int mask) {
+        ArrayList<Food> result = new ArrayList<Food>();
+        for (int i = 0; result.size() < count; i++) {
+            if (home(i, mask) == slot) {
+                Food f = new Food();
+                f.setIndex(i);
+                result.add(f);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that a set holds exactly some food, both through contains()
+     * and by walking its slots.
+     * @param set the set to check
+     * @param expected the food it should hold
+     */
+    private static void assertHolds(FoodSet set, ArrayList<Food> expected) {
+        assertEquals(expected.size(), set.size());
+        for (Food f : expected) {
+            assertTrue(set.contains(f));
+        }
+        int found = 0;
+        for (int i = 0; i < set.getCapacity(); i++) {
+            if (set.get(i) != null) {
+                assertTrue(expected.contains(set.get(i)));
+                found++;
+            }
+        }
+        assertEquals(expected.size(), found);
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        FoodSet set = new FoodSet();
+        Food a = new Food();
+        a.setIndex(3);
+
+        assertTrue(set.add(a));
+        assertFalse(set.add(a));
+        assertTrue(set.contains(a));
+        assertTrue(set.remove(a));
+        assertFalse(set.remove(a));
+        assertFalse(set.contains(a));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void testRemoveAcrossAWrappedRun() {
+        // four food objects that all start probing at the last slot, and one
+        // at the first, fill the last slot and the first four of a table of
+        // sixteen
+        int mask = 15;
+        ArrayList<Food> food = foodAt(4, 15, mask);
+        food.addAll(foodAt(1, 0, mask));
+        FoodSet set = new FoodSet();
+        for (Food f : food) {
+            set.add(f);
+        }
+        assertEquals(16, set.getCapacity());
+        assertNotNull(set.get(15));
+        assertNotNull(set.get(0));
+        assertHolds(set, food);
+
+        // take each one out in turn and put it back, so every position in
+        // the run gets emptied once
+        for (int i = 0; i < food.size(); i++) {
+            Food f = food.remove(i);
+            assertTrue(set.remove(f));
+            assertHolds(set, food);
+            // there is always something left that belongs in the last slot
+            assertNotNull(set.get(15));
+
+            assertTrue(set.add(f));
+            food.add(i, f);
+            assertHolds(set, food);
+        }
+
+        // empty the run from the front, with the table wrapping each time
+        while (!food.isEmpty()) {
+            Food f = set.get(15) != null ? set.get(15) : set.get(0);
+            assertTrue(set.remove(f));
+            food.remove(f);
+            assertHolds(set, food);
+        }
+    }
+
+    @Test
+    public void testClearKeepsCapacity() {
+        FoodSet set = new FoodSet();
+        ArrayList<Food> food = foodAt(6, 3, 15);
+        for (Food f : food) {
+            set.add(f);
+        }
+        int capacity = set.getCapacity();
+        set.clear();
+
+        assertEquals(capacity, set.getCapacity());
+        assertHolds(set, new ArrayList<Food>());
+    }
+}
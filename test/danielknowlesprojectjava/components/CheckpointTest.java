@@ -0,0 +1,170 @@
+package danielknowlesprojectjava.components;
+
+import danielknowlesprojectjava.geneticAlgorithm.GeneticEngine;
+import danielknowlesprojectjava.geneticAlgorithm.Genome;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that a checkpoint puts a world back exactly as it was, and that
+ * damaged checkpoints are turned away.
+ */
+public class CheckpointTest {
+    // the checkpoint file
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("checkpoint", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Makes a small world that has run a few generations.
+     * @return the world
+     */
+    private static World createWorld() {
+        return createWorld(40);
+    }
+
+    /**
+     * Makes a small world that has run a few generations.
+     * @param numFoods the number of food objects, which can be over the
+     * usual limit
+     * @return the world
+     */
+    private static World createWorld(int numFoods) {
+        World world = new World();
+        world.setSeed(7);
+        world.setBounds(0, 0, 300, 300);
+        world.setMaxFoods(Math.max(numFoods, world.getMaxFoods()));
+        world.setNumFeeders(20);
+        world.setNumFoods(numFoods);
+        world.setNumGenLoops(60);
+        world.initialize();
+        for (int i = 0; i < 3; i++) {
+            world.runGeneration();
+        }
+        return world;
+    }
+
+    /**
+     * Checks that two worlds have the same population and fitness history.
+     * @param expected the first world
+     * @param actual the second world
+     */
+    private static void assertSameGeneration(World expected, World actual) {
+        GeneticEngine a = expected.getGeneticEngine();
+        GeneticEngine b = actual.getGeneticEngine();
+
+        assertEquals(a.getPopulation().size(), b.getPopulation().size());
+        for (int i = 0; i < a.getPopulation().size(); i++) {
+            Genome x = a.getPopulation().get(i).getChromosome();
+            Genome y = b.getPopulation().get(i).getChromosome();
+            assertEquals(x.getWordCount(), y.getWordCount());
+            for (int w = 0; w < x.getWordCount(); w++) {
+                assertEquals(x.getWord(w), y.getWord(w));
+            }
+        }
+
+        int generations = a.getAverageFitnesses().size();
+        assertEquals(generations, b.getAverageFitnesses().size());
+        assertArrayEquals(a.getAverageFitnesses().toArray(0, generations),
+                b.getAverageFitnesses().toArray(0, generations), 0);
+        assertArrayEquals(a.getHighestFitnesses().toArray(0, generations),
+                b.getHighestFitnesses().toArray(0, generations), 0);
+        assertEquals(expected.getGenerationSeed(),
+                actual.getGenerationSeed());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        World world = createWorld();
+        new Checkpoint().save(world, file);
+
+        World resumed = new World();
+        Checkpoint.load(resumed, file);
+        assertEquals(world.getNumFoods(), resumed.getNumFoods());
+        assertEquals(world.getNumGenLoops(), resumed.getNumGenLoops());
+        assertSameGeneration(world, resumed);
+
+        // and the two carry on the same way
+        world.runGeneration();
+        resumed.runGeneration();
+        assertSameGeneration(world, resumed);
+    }
+
+    @Test
+    public void testSaveAndLoadAboveTheDefaultLimits() throws IOException {
+        World world = createWorld(800);
+        new Checkpoint().save(world, file);
+
+        // a new world only holds 500 food objects unless told otherwise
+        World resumed = new World();
+        Checkpoint.load(resumed, file);
+        assertEquals(800, resumed.getNumFoods());
+        assertEquals(world.getMaxFoods(), resumed.getMaxFoods());
+        assertEquals(world.getMaxFeeders(), resumed.getMaxFeeders());
+        assertSameGeneration(world, resumed);
+
+        world.runGeneration();
+        resumed.runGeneration();
+        assertSameGeneration(world, resumed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadOverItsLimits() throws IOException {
+        new Checkpoint().save(createWorld(), file);
+        byte[] data = Files.readAllBytes(file.toPath());
+        // the food limit comes after the magic number, version, bounds,
+        // food count, generation length and feeder limit
+        ByteBuffer.wrap(data).putInt(36, 10);
+        Files.write(file.toPath(), data);
+
+        Checkpoint.load(new World(), file);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSaveInTheMiddleOfAGeneration() throws IOException {
+        World world = createWorld();
+        world.step();
+        new Checkpoint().save(world, file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadTruncated() throws IOException {
+        new Checkpoint().save(createWorld(), file);
+        byte[] data = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(data, data.length - 8));
+
+        Checkpoint.load(new World(), file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadWrongVersion() throws IOException {
+        new Checkpoint().save(createWorld(), file);
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteBuffer.wrap(data).putInt(4, Checkpoint.FILE_VERSION + 1);
+        Files.write(file.toPath(), data);
+
+        Checkpoint.load(new World(), file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadNotACheckpoint() throws IOException {
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+
+        Checkpoint.load(new World(), file);
+    }
+}
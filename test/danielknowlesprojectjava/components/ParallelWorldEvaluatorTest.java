@@ -0,0 +1,34 @@
+package danielknowlesprojectjava.components;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that each batch's private world is set up like the template world.
+ */
+public class ParallelWorldEvaluatorTest {
+
+    @Test
+    public void testBatchWorldCopiesTheTemplate() {
+        World template = new World();
+        template.setBounds(20, 30, 640, 480);
+        template.setNumGenLoops(250);
+        template.setEventDriven(true);
+        ParallelWorldEvaluator evaluator =
+                new ParallelWorldEvaluator(template, 10, 1);
+
+        World world = new World();
+        evaluator.copyTemplate(world, 40);
+        evaluator.shutdown();
+
+        assertEquals(template.getMinX(), world.getMinX());
+        assertEquals(template.getMinY(), world.getMinY());
+        assertEquals(template.getWidth(), world.getWidth());
+        assertEquals(template.getHeight(), world.getHeight());
+        assertEquals(template.getMaxX(), world.getMaxX());
+        assertEquals(template.getMaxY(), world.getMaxY());
+        assertEquals(40, world.getNumFoods());
+        assertEquals(250, world.getNumGenLoops());
+        assertTrue(world.isEventDriven());
+    }
+}
@@ -0,0 +1,126 @@
+package danielknowlesprojectjava.geneticAlgorithm;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests how a DoubleSeries merges its entries to stay within a limit.
+ */
+public class DoubleSeriesTest {
+
+    /**
+     * Adds the values from one to a number to a series.
+     * @param series the series to add to
+     * @param last the last value to add
+     */
+    private static void addUpTo(DoubleSeries series, int last) {
+        for (int i = 1; i <= last; i++) {
+            series.add(i);
+        }
+    }
+
+    @Test
+    public void testNoLimitKeepsEveryValue() {
+        DoubleSeries series = new DoubleSeries();
+        addUpTo(series, 100);
+
+        assertEquals(100, series.size());
+        assertEquals(100, series.getCount());
+        assertEquals(1, series.getStride());
+        assertEquals(37.0, series.get(36), 0);
+        assertEquals(100.0, series.getLast(), 0);
+    }
+
+    @Test
+    public void testFullSeriesMergesAndHoldsTheNewValue() {
+        DoubleSeries series = new DoubleSeries(DoubleSeries.Downsampling.MEAN);
+        series.setMaxEntries(4);
+        addUpTo(series, 5);
+
+        // 1..4 were merged in pairs, and 5 waits for a partner
+        assertEquals(2, series.size());
+        assertEquals(2, series.getStride());
+        assertEquals(1.5, series.get(0), 0);
+        assertEquals(3.5, series.get(1), 0);
+        assertEquals(5, series.getCount());
+        assertEquals(5.0, series.getLast(), 0);
+
+        series.add(6);
+        assertEquals(3, series.size());
+        assertEquals(5.5, series.get(2), 0);
+    }
+
+    @Test
+    public void testSetMaxEntriesWithAnOddSize() {
+        DoubleSeries series = new DoubleSeries(DoubleSeries.Downsampling.MEAN);
+        addUpTo(series, 5);
+        series.setMaxEntries(2);
+
+        // 5 is left over after pairing, so it is pending with a stride of 2
+        assertEquals(2, series.size());
+        assertEquals(2, series.getStride());
+        assertEquals(1.5, series.get(0), 0);
+        assertEquals(3.5, series.get(1), 0);
+
+        // 5 and 7 make an entry, which fills the series again. it merges
+        // to a stride of 4, and 5, 7, 9 and 11 make the next entry.
+        series.add(7);
+        assertEquals(1, series.size());
+        assertEquals(4, series.getStride());
+        assertEquals(2.5, series.get(0), 0);
+
+        series.add(9);
+        series.add(11);
+        assertEquals(2, series.size());
+        assertEquals(8.0, series.get(1), 0);
+        assertEquals(11.0, series.getLast(), 0);
+        assertEquals(8, series.getCount());
+    }
+
+    @Test
+    public void testMaxKeepsTheLargestPendingValue() {
+        DoubleSeries series = new DoubleSeries(DoubleSeries.Downsampling.MAX);
+        addUpTo(series, 5);
+        series.setMaxEntries(2);
+
+        assertEquals(2.0, series.get(0), 0);
+        assertEquals(4.0, series.get(1), 0);
+
+        // 5 is still pending when the series merges again
+        series.add(3);
+        series.add(1);
+        series.add(2);
+        assertEquals(2, series.size());
+        assertEquals(4, series.getStride());
+        assertEquals(4.0, series.get(0), 0);
+        assertEquals(5.0, series.get(1), 0);
+    }
+
+    @Test
+    public void testSetMaxEntriesRoundsDown() {
+        DoubleSeries series = new DoubleSeries();
+        series.setMaxEntries(7);
+        assertEquals(6, series.getMaxEntries());
+        series.setMaxEntries(1);
+        assertEquals(2, series.getMaxEntries());
+        series.setMaxEntries(0);
+        assertEquals(0, series.getMaxEntries());
+    }
+
+    @Test
+    public void testClearKeepsTheLimit() {
+        DoubleSeries series = new DoubleSeries();
+        series.setMaxEntries(4);
+        addUpTo(series, 9);
+        series.clear();
+
+        assertEquals(0, series.size());
+        assertEquals(0, series.getCount());
+        assertEquals(1, series.getStride());
+        assertEquals(4, series.getMaxEntries());
+        assertTrue(Double.isNaN(series.getLast()));
+
+        addUpTo(series, 3);
+        assertEquals(3.0, series.get(2), 0);
+    }
+}